@@ -2,6 +2,8 @@ package net.mango;
 
 import net.fabricmc.fabric.api.datagen.v1.FabricDataOutput;
 import net.fabricmc.fabric.api.datagen.v1.provider.FabricTagProvider;
+import net.mango.item.TerracraftItemTags;
+import net.mango.item.TerracraftItems;
 import net.minecraft.registry.RegistryWrapper;
 
 import java.util.concurrent.CompletableFuture;
@@ -13,6 +15,7 @@ public class TerracraftItemTagProvider extends FabricTagProvider.ItemTagProvider
 
     @Override
     protected void configure(RegistryWrapper.WrapperLookup wrapperLookup) {
+        getTagBuilder(TerracraftItemTags.KEEPS_DURABILITY).add(TerracraftItems.CACTUS_ARMOR_KEY.getValue());
 
 //        getTagBuilder(ItemTags.TRIMMABLE_ARMOR).add(Identifier.of("cactus_chestplate"));
     }
@@ -0,0 +1,93 @@
+package net.mango.worldgen.noise;
+
+import net.mango.worldgen.biomes.TerracraftBiome;
+import net.minecraft.util.math.random.Random;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseBenchmark {
+    private static final long SEED = 42L;
+
+    private TerracraftNoise simplex;
+    private TerracraftNoise octavated;
+    private TerracraftNoise heightMap;
+    private TerracraftNoise compiledHeightMap;
+
+    private final double[] grid = new double[256];
+    private double x;
+
+    @Setup
+    public void setup() {
+        simplex = new SimplexTerracraftNoise(Random.create(SEED));
+        octavated = new SimplexTerracraftNoise(Random.create(SEED)).octavate(4, 2.0, 0.5);
+        heightMap = TerracraftBiome.JUNGLE.surfaceHeightMap(Random.create(SEED));
+        compiledHeightMap = heightMap.compile();
+    }
+
+    private double nextX() {
+        // walk along x so consecutive samples land in different simplex cells
+        x += 1.618;
+        return x;
+    }
+
+    @Benchmark
+    public double simplexSample() {
+        return simplex.sample(nextX(), 0.5);
+    }
+
+    @Benchmark
+    public double octavatedSample() {
+        return octavated.sample(nextX(), 0.5);
+    }
+
+    @Benchmark
+    public double heightMapSample() {
+        return heightMap.sample(nextX(), 0.5);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void heightMapChunkPerPoint(Blackhole bh) {
+        double x0 = nextX() * 16.0;
+
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                bh.consume(heightMap.sample(x0 + x, z));
+            }
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double[] heightMapChunkGrid() {
+        heightMap.sampleGrid(grid, nextX() * 16.0, 0.0, 1.0, 16, 16);
+        return grid;
+    }
+
+    @Benchmark
+    public double compiledHeightMapSample() {
+        return compiledHeightMap.sample(nextX(), 0.5);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double[] compiledHeightMapChunkGrid() {
+        compiledHeightMap.sampleGrid(grid, nextX() * 16.0, 0.0, 1.0, 16, 16);
+        return grid;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double[] simplexChunkGrid() {
+        simplex.sampleGrid(grid, nextX() * 16.0, 0.0, 1.0, 16, 16);
+        return grid;
+    }
+}
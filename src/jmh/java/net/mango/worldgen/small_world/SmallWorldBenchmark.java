@@ -0,0 +1,105 @@
+package net.mango.worldgen.small_world;
+
+import com.mojang.serialization.Lifecycle;
+import net.minecraft.SharedConstants;
+import net.minecraft.Bootstrap;
+import net.minecraft.registry.BuiltinRegistries;
+import net.minecraft.registry.Registry;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.registry.SimpleRegistry;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.HeightLimitView;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ProtoChunk;
+import net.minecraft.world.chunk.UpgradeData;
+import net.minecraft.world.gen.chunk.Blender;
+import net.minecraft.world.gen.chunk.ChunkGeneratorSettings;
+import net.minecraft.world.gen.noise.NoiseConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SmallWorldBenchmark {
+    private static final long SEED = 42L;
+    private static final int CHUNK_RAD = SmallWorldParams.RADIUS >> 4;
+
+    private SmallWorldChunkGenerator generator;
+    private NoiseConfig noiseConfig;
+    private BiomeLayout layout;
+    private Registry<Biome> biomeRegistry;
+    private HeightLimitView heightLimit;
+
+    @Param({"false", "true"})
+    private boolean parallelSections;
+
+    private int x;
+    private int chunk;
+
+    @Setup
+    public void setup() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        RegistryWrapper.WrapperLookup lookup = BuiltinRegistries.createWrapperLookup();
+
+        // ProtoChunk wants a real registry, so copy the vanilla biomes into a headless one
+        SimpleRegistry<Biome> registry = new SimpleRegistry<>(RegistryKeys.BIOME, Lifecycle.stable());
+        lookup.getOrThrow(RegistryKeys.BIOME).streamEntries().forEach(entry -> Registry.register(registry, entry.registryKey(), entry.value()));
+        registry.freeze();
+        biomeRegistry = registry;
+
+        generator = SmallWorldChunkGenerator.create(registry, lookup.getOrThrow(RegistryKeys.PLACED_FEATURE));
+        noiseConfig = NoiseConfig.create(
+                lookup.getOrThrow(RegistryKeys.CHUNK_GENERATOR_SETTINGS).getOrThrow(ChunkGeneratorSettings.OVERWORLD).value(),
+                lookup.getOrThrow(RegistryKeys.NOISE_PARAMETERS),
+                SEED
+        );
+        layout = generator.generateInitialBiomes(noiseConfig);
+        heightLimit = HeightLimitView.create(SmallWorldParams.BEDROCK_Y, SmallWorldParams.WORLD_HEIGHT);
+
+        ParallelSections.setEnabled(parallelSections);
+    }
+
+    @Benchmark
+    public Object getBiomeAt() {
+        x = (x + 7) & 1023;
+        return layout.getBiomeAt(x - SmallWorldParams.RADIUS, (x * 31 & 1023) - SmallWorldParams.RADIUS);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BiomeLayout generateInitialBiomes() {
+        return generator.generateInitialBiomes(noiseConfig);
+    }
+
+    /**
+     * One chunk through biomes, noise, surface and carving, stepping over every chunk of the bounded world so the
+     * height cache sees the same miss pattern as a pregen run. Includes allocating the proto chunk itself, and runs
+     * once per {@link ParallelSections} mode to compare the single-threaded and per-section paths.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Chunk chunkPass() {
+        int side = CHUNK_RAD * 2;
+        chunk = (chunk + 1) % (side * side);
+        ChunkPos pos = new ChunkPos(chunk % side - CHUNK_RAD, chunk / side - CHUNK_RAD);
+
+        ProtoChunk proto = new ProtoChunk(pos, UpgradeData.NO_UPGRADE_DATA, heightLimit, biomeRegistry, null);
+
+        generator.populateBiomes(noiseConfig, Blender.getNoBlending(), null, proto).join();
+        generator.populateNoise(Blender.getNoBlending(), noiseConfig, null, proto).join();
+        // neither buildSurface nor carve touches the region, structures or biome access
+        generator.buildSurface(null, null, noiseConfig, proto);
+        generator.carve(null, SEED, noiseConfig, null, null, proto);
+
+        return proto;
+    }
+}
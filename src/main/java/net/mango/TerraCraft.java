@@ -2,11 +2,20 @@ package net.mango;
 
 import net.fabricmc.api.ModInitializer;
 
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
 import net.fabricmc.fabric.api.event.player.UseItemCallback;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.mango.command.TerracraftCommands;
+import net.mango.item.DurabilityPolicy;
 import net.mango.item.TerracraftItems;
+import net.mango.worldgen.pregen.PregenManager;
+import net.mango.worldgen.pregen.PregenTask;
+import net.mango.worldgen.pregen.RegionCache;
 import net.mango.worldgen.small_world.SmallWorldChunkGenerator;
+import net.mango.worldgen.CaveChestIndex;
 import net.mango.worldgen.TerracraftFeatures;
 import net.minecraft.entity.attribute.EntityAttributeInstance;
 import net.minecraft.entity.attribute.EntityAttributes;
@@ -47,14 +56,26 @@ public class TerraCraft implements ModInitializer {
             throw new RuntimeException(e);
         }
 
+		ServerLifecycleEvents.SERVER_STARTING.register(RegionCache::restore);
         ServerLifecycleEvents.SERVER_STARTED.register(server -> {
             WorldBorder border = server.getOverworld().getWorldBorder();
 			border.setCenter(0.0, 0.0);
 			border.setSize(1024);
+
+			PregenManager.startAuto(server);
 		});
 
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> PregenManager.stop());
+		ServerLifecycleEvents.SERVER_STOPPING.register(RegionCache::awaitSnapshot);
+		ServerTickEvents.END_SERVER_TICK.register(PregenManager::tick);
+		ServerWorldEvents.LOAD.register((server, world) -> CaveChestIndex.load(world));
+		ServerWorldEvents.UNLOAD.register((server, world) -> CaveChestIndex.unload(world));
+		CommandRegistrationCallback.EVENT.register(TerracraftCommands::register);
+
 		ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
 			ServerPlayerEntity player = handler.getPlayer();
+			PregenManager.getState(server).markPlayed();
+
 			String tag = "terracraft:first_join";
 			if (!player.getCommandTags().contains(tag)) {
 				player.addCommandTag(tag);
@@ -101,6 +122,8 @@ public class TerraCraft implements ModInitializer {
 		}));
 
 		TerracraftItems.initialize();
+		DurabilityPolicy.initialize();
 		TerracraftFeatures.register();
+		PregenTask.register();
 	}
 }
\ No newline at end of file
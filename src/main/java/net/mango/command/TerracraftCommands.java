@@ -0,0 +1,160 @@
+package net.mango.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import net.mango.worldgen.CaveChestIndex;
+import net.mango.worldgen.noise.SimplexKernel2D;
+import net.mango.worldgen.pregen.PregenManager;
+import net.mango.worldgen.pregen.PregenState;
+import net.mango.worldgen.pregen.PregenTask;
+import net.mango.worldgen.small_world.ParallelSections;
+import net.mango.worldgen.stats.WorldgenTimings;
+import net.minecraft.command.CommandRegistryAccess;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Optional;
+
+public class TerracraftCommands {
+    private static final int DEFAULT_PARALLELISM = 32;
+    private static final int DEFAULT_BUDGET_MS = 5;
+    private static final int DEFAULT_CHEST_RADIUS = 1024;
+
+    private TerracraftCommands() {}
+
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher, CommandRegistryAccess registryAccess, CommandManager.RegistrationEnvironment environment) {
+        dispatcher.register(CommandManager.literal("terracraft")
+                .requires(source -> source.hasPermissionLevel(2))
+                .then(CommandManager.literal("pregen")
+                        .then(CommandManager.literal("start")
+                                .executes(ctx -> startPregen(ctx.getSource(), DEFAULT_PARALLELISM, DEFAULT_BUDGET_MS))
+                                .then(CommandManager.argument("parallelism", IntegerArgumentType.integer(1, 1024))
+                                        .executes(ctx -> startPregen(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "parallelism"), DEFAULT_BUDGET_MS))
+                                        .then(CommandManager.argument("budgetMs", IntegerArgumentType.integer(1, 50))
+                                                .executes(ctx -> startPregen(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "parallelism"), IntegerArgumentType.getInteger(ctx, "budgetMs"))))))
+                        .then(CommandManager.literal("stop")
+                                .executes(ctx -> stopPregen(ctx.getSource())))
+                        .then(CommandManager.literal("status")
+                                .executes(ctx -> pregenStatus(ctx.getSource())))
+                        .then(CommandManager.literal("auto")
+                                .then(CommandManager.argument("enabled", BoolArgumentType.bool())
+                                        .executes(ctx -> setAutoPregen(ctx.getSource(), BoolArgumentType.getBool(ctx, "enabled"))))))
+                .then(CommandManager.literal("perf")
+                        .executes(ctx -> perfReport(ctx.getSource()))
+                        .then(CommandManager.literal("reset")
+                                .executes(ctx -> perfReset(ctx.getSource())))
+                        .then(CommandManager.literal("enabled")
+                                .then(CommandManager.argument("enabled", BoolArgumentType.bool())
+                                        .executes(ctx -> perfSetEnabled(ctx.getSource(), BoolArgumentType.getBool(ctx, "enabled")))))
+                        .then(CommandManager.literal("parallel")
+                                .then(CommandManager.argument("enabled", BoolArgumentType.bool())
+                                        .executes(ctx -> perfSetParallel(ctx.getSource(), BoolArgumentType.getBool(ctx, "enabled"))))))
+                .then(CommandManager.literal("chests")
+                        .then(CommandManager.literal("nearest")
+                                .executes(ctx -> nearestChest(ctx.getSource(), DEFAULT_CHEST_RADIUS))
+                                .then(CommandManager.argument("radius", IntegerArgumentType.integer(1, 16384))
+                                        .executes(ctx -> nearestChest(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "radius")))))));
+    }
+
+    private static int startPregen(ServerCommandSource source, int parallelism, int budgetMs) {
+        boolean started = PregenManager.start(source.getServer().getOverworld(), parallelism, budgetMs * 1_000_000L,
+                line -> source.sendFeedback(() -> Text.literal(line), false));
+
+        if (!started) {
+            source.sendError(Text.literal("Pregeneration is already running"));
+            return 0;
+        }
+
+        source.sendFeedback(() -> Text.literal("Started pregeneration with parallelism " + parallelism + " and " + budgetMs + "ms per tick"), true);
+        return 1;
+    }
+
+    private static int stopPregen(ServerCommandSource source) {
+        if (!PregenManager.stop()) {
+            source.sendError(Text.literal("Pregeneration is not running"));
+            return 0;
+        }
+
+        source.sendFeedback(() -> Text.literal("Stopped pregeneration"), true);
+        return 1;
+    }
+
+    private static int setAutoPregen(ServerCommandSource source, boolean enabled) {
+        PregenState state = PregenManager.getState(source.getServer());
+        state.setAuto(enabled);
+
+        if (enabled && PregenManager.startAuto(source.getServer())) {
+            source.sendFeedback(() -> Text.literal("Background pregeneration enabled and started"), true);
+        } else {
+            source.sendFeedback(() -> Text.literal("Background pregeneration " + (enabled ? "enabled" : "disabled")), true);
+        }
+
+        return 1;
+    }
+
+    private static int pregenStatus(ServerCommandSource source) {
+        PregenTask task = PregenManager.getActive();
+
+        if (task == null) {
+            PregenState state = PregenManager.getState(source.getServer());
+            source.sendFeedback(() -> Text.literal("Pregeneration is not running, background progress " + state.getCompleted() + "/" + state.getTotal()), false);
+            return 0;
+        }
+
+        source.sendFeedback(() -> Text.literal("Pregenerated " + task.getCompleted() + "/" + task.getTotal() + " chunks"), false);
+        return task.getCompleted();
+    }
+
+    private static int perfReport(ServerCommandSource source) {
+        source.sendFeedback(() -> Text.literal("Worldgen timings " + (WorldgenTimings.isEnabled() ? "enabled" : "disabled") + ", per-section parallelism " + (ParallelSections.isEnabled() ? "on" : "off") + ", simplex " + (SimplexKernel2D.isVectorized() ? "vectorized" : "scalar")), false);
+
+        for (WorldgenTimings.Stage stage : WorldgenTimings.Stage.values()) {
+            source.sendFeedback(() -> Text.literal("  " + WorldgenTimings.summary(stage)), false);
+        }
+
+        return 1;
+    }
+
+    private static int perfReset(ServerCommandSource source) {
+        WorldgenTimings.reset();
+        source.sendFeedback(() -> Text.literal("Reset worldgen timings"), true);
+        return 1;
+    }
+
+    private static int perfSetEnabled(ServerCommandSource source, boolean enabled) {
+        WorldgenTimings.setEnabled(enabled);
+        source.sendFeedback(() -> Text.literal("Worldgen timings " + (enabled ? "enabled" : "disabled")), true);
+        return 1;
+    }
+
+    private static int perfSetParallel(ServerCommandSource source, boolean enabled) {
+        ParallelSections.setEnabled(enabled);
+
+        // the comparison only means something if the histograms are not mixing both modes
+        WorldgenTimings.reset();
+        source.sendFeedback(() -> Text.literal("Per-section parallelism " + (enabled ? "enabled with " + ParallelSections.getParallelism() + " threads" : "disabled") + ", timings reset"), true);
+        return 1;
+    }
+
+    private static int nearestChest(ServerCommandSource source, int radius) {
+        ServerWorld world = source.getWorld();
+        CaveChestIndex index = CaveChestIndex.get(world);
+        BlockPos from = BlockPos.ofFloored(source.getPosition());
+
+        Optional<BlockPos> nearest = index == null ? Optional.empty() : index.findNearestChest(world, from, radius);
+        if (nearest.isEmpty()) {
+            source.sendError(Text.literal("No cave chest within " + radius + " blocks"));
+            return 0;
+        }
+
+        BlockPos pos = nearest.get();
+        int distance = (int) Math.sqrt(from.getSquaredDistance(pos.getX(), from.getY(), pos.getZ()));
+        source.sendFeedback(() -> Text.literal("Nearest cave chest at " + pos.toShortString() + ", " + distance + " blocks away (" + index.size() + " indexed)"), false);
+
+        return distance;
+    }
+}
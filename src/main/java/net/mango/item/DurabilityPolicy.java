@@ -0,0 +1,41 @@
+package net.mango.item;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.entry.RegistryEntry;
+
+import java.util.BitSet;
+
+/**
+ * Decides which items lose durability when used. Items in {@link TerracraftItemTags#KEEPS_DURABILITY} wear down as
+ * usual, every other item is unbreakable.
+ * <p>
+ * The tag is resolved into a bitset over item raw ids whenever tags load, so the check on every damage update is a
+ * single bit lookup and allocates nothing.
+ */
+public final class DurabilityPolicy {
+    private static volatile BitSet keepsDurability = new BitSet();
+
+    private DurabilityPolicy() {}
+
+    public static void initialize() {
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> resolve());
+    }
+
+    private static void resolve() {
+        BitSet bits = new BitSet(Registries.ITEM.size());
+
+        for (RegistryEntry<Item> entry : Registries.ITEM.iterateEntries(TerracraftItemTags.KEEPS_DURABILITY)) {
+            bits.set(Registries.ITEM.getRawId(entry.value()));
+        }
+
+        // readers only ever see a complete set
+        keepsDurability = bits;
+    }
+
+    public static boolean keepsDurability(ItemStack stack) {
+        return keepsDurability.get(Registries.ITEM.getRawId(stack.getItem()));
+    }
+}
@@ -0,0 +1,12 @@
+package net.mango.item;
+
+import net.mango.TerraCraft;
+import net.minecraft.item.Item;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.tag.TagKey;
+import net.minecraft.util.Identifier;
+
+public class TerracraftItemTags {
+    // items that still wear down, everything else is unbreakable, see DurabilityPolicy
+    public static final TagKey<Item> KEEPS_DURABILITY = TagKey.of(RegistryKeys.ITEM, Identifier.of(TerraCraft.MOD_ID, "keeps_durability"));
+}
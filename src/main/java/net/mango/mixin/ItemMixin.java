@@ -1,15 +1,32 @@
 package net.mango.mixin;
 
+import net.mango.item.DurabilityPolicy;
+import net.minecraft.advancement.criterion.ItemDurabilityChangedCriterion;
 import net.minecraft.item.ItemStack;
+import net.minecraft.server.network.ServerPlayerEntity;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
-import org.spongepowered.asm.mixin.injection.Inject;
-import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.Redirect;
 
+// every wear path ends in onDurabilityChange: tools and weapons through postHit/postMine, armor through
+// LivingEntity.damageArmor, shields through damageShield and elytra through the gliding tick all call
+// ItemStack.damage, which funnels into it.
+// repairs and commands set damage directly and are left alone. both redirects are required, so a version that moves
+// either call fails at startup instead of silently wearing items again
 @Mixin(ItemStack.class)
 public abstract class ItemMixin {
-	@Inject(at = @At("HEAD"), method = "setDamage", cancellable = true)
-	private void setDamage(int damage, CallbackInfo ci) {
-		ci.cancel();
+	@Redirect(method = "onDurabilityChange", at = @At(value = "INVOKE", target = "Lnet/minecraft/advancement/criterion/ItemDurabilityChangedCriterion;trigger(Lnet/minecraft/server/network/ServerPlayerEntity;Lnet/minecraft/item/ItemStack;I)V"))
+	private void triggerDurabilityCriterion(ItemDurabilityChangedCriterion criterion, ServerPlayerEntity player, ItemStack stack, int damage) {
+		// advancements must not see wear the policy throws away
+		if (DurabilityPolicy.keepsDurability(stack)) {
+			criterion.trigger(player, stack, damage);
+		}
 	}
-}
\ No newline at end of file
+
+	@Redirect(method = "onDurabilityChange", at = @At(value = "INVOKE", target = "Lnet/minecraft/item/ItemStack;setDamage(I)V"))
+	private void applyDurabilityPolicy(ItemStack stack, int damage) {
+		if (DurabilityPolicy.keepsDurability(stack)) {
+			stack.setDamage(damage);
+		}
+	}
+}
@@ -2,56 +2,67 @@ package net.mango.worldgen;
 
 import com.mojang.serialization.Codec;
 import net.mango.TerraCraft;
+import net.mango.worldgen.small_world.CaveCarver;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.ChestBlock;
 import net.minecraft.block.entity.ChestBlockEntity;
+import net.minecraft.loot.LootTable;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.RegistryKeys;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.StructureWorldAccess;
-import net.minecraft.world.gen.feature.DefaultFeatureConfig;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
 import net.minecraft.world.gen.feature.Feature;
 import net.minecraft.world.gen.feature.util.FeatureContext;
 
-public class CaveChestFeature extends Feature<DefaultFeatureConfig> {
-    public CaveChestFeature(Codec<DefaultFeatureConfig> configCodec) {
+public class CaveChestFeature extends Feature<CaveChestFeatureConfig> {
+    // caves never open closer to the surface than the carver's margin, so the scan starts just below it
+    private static final int MIN_DEPTH = CaveCarver.SURFACE_MARGIN + 1;
+    private static final int SCAN_DEPTH = MIN_DEPTH + 16;
+    private static final RegistryKey<LootTable> LOOT_TABLE = RegistryKey.of(RegistryKeys.LOOT_TABLE, Identifier.of(TerraCraft.MOD_ID, "chests/cave_chest"));
+
+    public CaveChestFeature(Codec<CaveChestFeatureConfig> configCodec) {
         super(configCodec);
     }
 
     @Override
-    public boolean generate(FeatureContext<DefaultFeatureConfig> ctx) {
+    public boolean generate(FeatureContext<CaveChestFeatureConfig> ctx) {
         StructureWorldAccess world = ctx.getWorld();
 
         var random = ctx.getRandom();
         if (random.nextInt(2) != 0) return false;
 
         BlockPos origin = ctx.getOrigin();
-        BlockPos surfaceBlock = origin.down();
+        int surfaceY = origin.getY() - 1;
 
-        for (int depth = 1; depth <= 10; depth++) {
-            BlockPos pos = surfaceBlock.down(depth);
+        // one pass over the column from the deepest floor up to the surface, straight out of the sections
+        int baseY = surfaceY - SCAN_DEPTH - 1;
+        BlockState[] column = readColumn(world.getChunk(origin), origin.getX(), origin.getZ(), baseY, SCAN_DEPTH + 2);
 
-            if (!world.isAir(pos) || !world.isAir(pos.up())) continue;
+        for (int depth = MIN_DEPTH; depth <= SCAN_DEPTH; depth++) {
+            int i = surfaceY - depth - baseY;
+            if (!column[i].isAir() || !column[i + 1].isAir()) continue;
 
+            BlockPos pos = new BlockPos(origin.getX(), surfaceY - depth, origin.getZ());
             BlockPos floor = pos.down();
-            if (!world.getBlockState(floor).isSideSolidFullSquare(world, floor, Direction.UP)) continue;
+            if (column[i - 1].isAir() || !column[i - 1].isSideSolidFullSquare(world, floor, Direction.UP)) continue;
 
-            if (world.getBlockState(pos.north()).isOf(Blocks.CHEST)) continue;
-            if (world.getBlockState(pos.south()).isOf(Blocks.CHEST)) continue;
-            if (world.getBlockState(pos.east()).isOf(Blocks.CHEST)) continue;
-            if (world.getBlockState(pos.west()).isOf(Blocks.CHEST)) continue;
+            // every candidate in this column is the same distance away horizontally, so a neighbor rules them all out
+            CaveChestIndex index = CaveChestIndex.get(world.toServerWorld());
+            if (index != null && !index.tryReserve(pos, ctx.getConfig().minSpacing())) return false;
 
             var facing = Direction.Type.HORIZONTAL.random(random);
             world.setBlockState(pos, Blocks.CHEST.getDefaultState().with(ChestBlock.FACING, facing), 3);
 
             if (world.getBlockEntity(pos) instanceof ChestBlockEntity chest) {
-                var tableKey = RegistryKey.of(RegistryKeys.LOOT_TABLE, Identifier.of(TerraCraft.MOD_ID, "chests/cave_chest"));
-                chest.setLootTable(tableKey, random.nextLong());
+                chest.setLootTable(LOOT_TABLE, random.nextLong());
                 chest.markDirty();
 
-                TerraCraft.LOGGER.info("cave_chest spawn success! Located at: {}", pos);
+                TerraCraft.LOGGER.debug("cave_chest spawned at {}", pos);
             }
 
             return true;
@@ -59,4 +70,19 @@ public class CaveChestFeature extends Feature<DefaultFeatureConfig> {
 
         return false;
     }
+
+    private static BlockState[] readColumn(Chunk chunk, int x, int z, int baseY, int height) {
+        BlockState[] column = new BlockState[height];
+        ChunkSection[] sections = chunk.getSectionArray();
+
+        for (int i = 0; i < height; i++) {
+            int y = baseY + i;
+            int index = chunk.getSectionIndex(y);
+
+            // below the world counts as solid void, never a valid spot
+            column[i] = index < 0 || index >= sections.length ? Blocks.VOID_AIR.getDefaultState() : sections[index].getBlockState(x & 15, y & 15, z & 15);
+        }
+
+        return column;
+    }
 }
@@ -0,0 +1,14 @@
+package net.mango.worldgen;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.world.gen.feature.FeatureConfig;
+
+/**
+ * @param minSpacing horizontal distance in blocks that must separate two cave chests, 0 to allow any spacing
+ */
+public record CaveChestFeatureConfig(int minSpacing) implements FeatureConfig {
+    public static final Codec<CaveChestFeatureConfig> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+            Codec.intRange(0, CaveChestIndex.MAX_SPACING).optionalFieldOf("min_spacing", 16).forGetter(CaveChestFeatureConfig::minSpacing)
+    ).apply(instance, CaveChestFeatureConfig::new));
+}
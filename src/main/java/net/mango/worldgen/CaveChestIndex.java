@@ -0,0 +1,187 @@
+package net.mango.worldgen;
+
+import com.mojang.serialization.Codec;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.mango.TerraCraft;
+import net.minecraft.block.entity.ChestBlockEntity;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.PersistentState;
+import net.minecraft.world.PersistentStateType;
+import net.minecraft.world.World;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every cave chest placed in a world, bucketed by chunk column and saved with the world.
+ * <p>
+ * A spacing check only looks at the buckets within the spacing, a fixed handful for a given config, and nearest
+ * queries walk rings of buckets outwards until no closer chest is possible. Worldgen threads read the index
+ * through {@link #get}, which never touches the persistent state manager; it is registered on the server thread
+ * when a world loads. Chests broken or replaced later stay indexed until a lookup finds them gone and drops them.
+ */
+public class CaveChestIndex extends PersistentState {
+    public static final int MAX_SPACING = 64;
+
+    public static final Codec<CaveChestIndex> CODEC = Codec.LONG_STREAM.fieldOf("chests").codec()
+            .xmap(stream -> new CaveChestIndex(stream.toArray()), index -> Arrays.stream(index.positions()));
+
+    public static final PersistentStateType<CaveChestIndex> TYPE = new PersistentStateType<>(TerraCraft.MOD_ID + "_cave_chests", CaveChestIndex::new, CODEC, null);
+
+    private static final Map<RegistryKey<World>, CaveChestIndex> LOADED = new ConcurrentHashMap<>();
+
+    private final Long2ObjectOpenHashMap<LongArrayList> buckets = new Long2ObjectOpenHashMap<>();
+    private int size;
+
+    public CaveChestIndex() {}
+
+    private CaveChestIndex(long[] positions) {
+        for (long pos : positions) {
+            insert(BlockPos.fromLong(pos));
+        }
+    }
+
+    public static void load(ServerWorld world) {
+        LOADED.put(world.getRegistryKey(), world.getPersistentStateManager().getOrCreate(TYPE));
+    }
+
+    public static void unload(ServerWorld world) {
+        LOADED.remove(world.getRegistryKey());
+    }
+
+    public static CaveChestIndex get(ServerWorld world) {
+        return LOADED.get(world.getRegistryKey());
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private synchronized long[] positions() {
+        long[] positions = new long[size];
+
+        int i = 0;
+        for (LongArrayList bucket : buckets.values()) {
+            bucket.getElements(0, positions, i, bucket.size());
+            i += bucket.size();
+        }
+
+        return positions;
+    }
+
+    private void insert(BlockPos pos) {
+        buckets.computeIfAbsent(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4), key -> new LongArrayList(1)).add(pos.asLong());
+        size++;
+    }
+
+    /**
+     * Records a chest at {@code pos} unless another one lies closer than {@code minSpacing} horizontally.
+     */
+    public synchronized boolean tryReserve(BlockPos pos, int minSpacing) {
+        if (minSpacing > 0) {
+            int reach = (minSpacing + 15) >> 4;
+            long maxDistSq = (long) minSpacing * minSpacing;
+
+            int bx = pos.getX() >> 4;
+            int bz = pos.getZ() >> 4;
+            for (int dz = -reach; dz <= reach; dz++) {
+                for (int dx = -reach; dx <= reach; dx++) {
+                    LongArrayList bucket = buckets.get(ChunkPos.toLong(bx + dx, bz + dz));
+                    if (bucket != null && closestDistSq(bucket, pos.getX(), pos.getZ()) < maxDistSq) return false;
+                }
+            }
+        }
+
+        insert(pos);
+        markDirty();
+        return true;
+    }
+
+    private synchronized void remove(BlockPos pos) {
+        LongArrayList bucket = buckets.get(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (bucket == null || !bucket.rem(pos.asLong())) return;
+
+        if (bucket.isEmpty()) {
+            buckets.remove(ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4));
+        }
+
+        size--;
+        markDirty();
+    }
+
+    /**
+     * The chest still standing closest to {@code from} horizontally, looking no further than {@code maxRadius}
+     * blocks. Entries whose chest has been broken or replaced are dropped on the way. Server thread only, since it
+     * reads the world.
+     */
+    public Optional<BlockPos> findNearestChest(ServerWorld world, BlockPos from, int maxRadius) {
+        while (true) {
+            Optional<BlockPos> nearest = findNearest(from, maxRadius);
+            if (nearest.isEmpty() || world.getBlockEntity(nearest.get()) instanceof ChestBlockEntity) return nearest;
+
+            remove(nearest.get());
+        }
+    }
+
+    private synchronized Optional<BlockPos> findNearest(BlockPos from, int maxRadius) {
+        if (size == 0) return Optional.empty();
+
+        int bx = from.getX() >> 4;
+        int bz = from.getZ() >> 4;
+        int rings = (maxRadius + 15) >> 4;
+
+        long best = Long.MIN_VALUE;
+        long bestDistSq = Long.MAX_VALUE;
+
+        for (int r = 0; r <= rings; r++) {
+            for (int dz = -r; dz <= r; dz++) {
+                // interior buckets belong to earlier rings, only the edges are new
+                int step = (dz == -r || dz == r) ? 1 : Math.max(1, 2 * r);
+
+                for (int dx = -r; dx <= r; dx += step) {
+                    LongArrayList bucket = buckets.get(ChunkPos.toLong(bx + dx, bz + dz));
+                    if (bucket == null) continue;
+
+                    for (int i = 0; i < bucket.size(); i++) {
+                        long pos = bucket.getLong(i);
+                        long distSq = horizontalDistSq(pos, from.getX(), from.getZ());
+
+                        if (distSq < bestDistSq) {
+                            bestDistSq = distSq;
+                            best = pos;
+                        }
+                    }
+                }
+            }
+
+            // everything in the next ring is more than r * 16 blocks away
+            long ringDist = (long) r * 16;
+            if (bestDistSq <= ringDist * ringDist) break;
+        }
+
+        if (bestDistSq > (long) maxRadius * maxRadius) return Optional.empty();
+        return Optional.of(BlockPos.fromLong(best));
+    }
+
+    private static long closestDistSq(LongArrayList bucket, int x, int z) {
+        long closest = Long.MAX_VALUE;
+
+        for (int i = 0; i < bucket.size(); i++) {
+            closest = Math.min(closest, horizontalDistSq(bucket.getLong(i), x, z));
+        }
+
+        return closest;
+    }
+
+    private static long horizontalDistSq(long pos, int x, int z) {
+        long dx = BlockPos.unpackLongX(pos) - x;
+        long dz = BlockPos.unpackLongZ(pos) - z;
+        return dx * dx + dz * dz;
+    }
+}
@@ -6,6 +6,7 @@ import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
 import net.minecraft.util.math.random.Random;
 
+// ordinals are saved in the world's biome layout, only ever append new biomes (at most 16)
 public enum TerracraftBiome {
     PLAINS,
     DESERT,
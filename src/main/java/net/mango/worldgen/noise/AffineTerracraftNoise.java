@@ -0,0 +1,72 @@
+package net.mango.worldgen.noise;
+
+/**
+ * {@code base(x * frequency, y * frequency) * scale + offset}.
+ * <p>
+ * Any chain of {@link #scale}, {@link #offset} and {@link #frequency} calls collapses into a single one of these,
+ * so a height map costs one wrapper no matter how it was written.
+ */
+public final class AffineTerracraftNoise implements TerracraftNoise {
+    final TerracraftNoise base;
+    final double frequency;
+    final double scale;
+    final double offset;
+
+    AffineTerracraftNoise(TerracraftNoise base, double frequency, double scale, double offset) {
+        this.base = base;
+        this.frequency = frequency;
+        this.scale = scale;
+        this.offset = offset;
+    }
+
+    @Override
+    public double sample(double x, double y) {
+        return base.sample(x * frequency, y * frequency) * scale + offset;
+    }
+
+    @Override
+    public void sampleGrid(double[] out, double x0, double y0, double step, int width, int height) {
+        base.sampleGrid(out, x0 * frequency, y0 * frequency, step * frequency, width, height);
+
+        int n = width * height;
+        for (int i = 0; i < n; i++) {
+            out[i] = out[i] * scale + offset;
+        }
+    }
+
+    @Override
+    public TerracraftNoise scale(double scale) {
+        return new AffineTerracraftNoise(base, frequency, this.scale * scale, offset * scale);
+    }
+
+    @Override
+    public TerracraftNoise offset(double offset) {
+        return new AffineTerracraftNoise(base, frequency, scale, this.offset + offset);
+    }
+
+    @Override
+    public TerracraftNoise frequency(double freq) {
+        return new AffineTerracraftNoise(base, frequency * freq, scale, offset);
+    }
+
+    @Override
+    public TerracraftNoise octavate(int octaves, double lacu, double gain) {
+        // octaves are normalized by their total amplitude, so the output transform passes straight through them
+        return new AffineTerracraftNoise(base.octavate(octaves, lacu, gain), frequency, scale, offset);
+    }
+
+    @Override
+    public TerracraftNoise compile() {
+        TerracraftNoise compiled = base.compile();
+
+        if (compiled instanceof FusedSimplexNoise fused) {
+            return fused.transform(frequency, scale, offset);
+        }
+
+        if (compiled instanceof SimplexTerracraftNoise simplex) {
+            return FusedSimplexNoise.of(simplex.kernel, 1, 1.0, 1.0).transform(frequency, scale, offset);
+        }
+
+        return new AffineTerracraftNoise(compiled, frequency, scale, offset);
+    }
+}
@@ -0,0 +1,104 @@
+package net.mango.worldgen.noise;
+
+import java.util.Arrays;
+
+/**
+ * The end result of {@link TerracraftNoise#compile()} for simplex based chains: every octave's frequency and
+ * normalized amplitude, with the surrounding affine transform folded in, held as flat tables over one kernel.
+ * <p>
+ * Final and free of any further {@link TerracraftNoise} calls, so the only call inside the loops is the kernel
+ * itself.
+ */
+public final class FusedSimplexNoise implements TerracraftNoise {
+    private final SimplexKernel2D kernel;
+    private final double[] frequencies;
+    private final double[] amplitudes;
+    private final double offset;
+
+    private FusedSimplexNoise(SimplexKernel2D kernel, double[] frequencies, double[] amplitudes, double offset) {
+        this.kernel = kernel;
+        this.frequencies = frequencies;
+        this.amplitudes = amplitudes;
+        this.offset = offset;
+    }
+
+    static FusedSimplexNoise of(SimplexKernel2D kernel, int octaves, double lacunarity, double gain) {
+        double[] frequencies = new double[octaves];
+        double[] amplitudes = new double[octaves];
+
+        double scope = 0.0;
+        double freq = 1.0;
+        double amp = 1.0;
+
+        for (int i = 0; i < octaves; i++) {
+            frequencies[i] = freq;
+            amplitudes[i] = amp;
+            scope += amp;
+
+            freq *= lacunarity;
+            amp *= gain;
+        }
+
+        for (int i = 0; i < octaves; i++) {
+            amplitudes[i] /= scope;
+        }
+
+        return new FusedSimplexNoise(kernel, frequencies, amplitudes, 0.0);
+    }
+
+    FusedSimplexNoise transform(double frequency, double scale, double offset) {
+        double[] frequencies = new double[this.frequencies.length];
+        double[] amplitudes = new double[this.amplitudes.length];
+
+        for (int i = 0; i < frequencies.length; i++) {
+            frequencies[i] = this.frequencies[i] * frequency;
+            amplitudes[i] = this.amplitudes[i] * scale;
+        }
+
+        return new FusedSimplexNoise(kernel, frequencies, amplitudes, this.offset * scale + offset);
+    }
+
+    @Override
+    public double sample(double x, double y) {
+        double total = offset;
+
+        for (int i = 0; i < frequencies.length; i++) {
+            double f = frequencies[i];
+            total += kernel.sample(x * f, y * f) * amplitudes[i];
+        }
+
+        return total;
+    }
+
+    @Override
+    public void sampleGrid(double[] out, double x0, double y0, double step, int width, int height) {
+        int n = width * height;
+        Arrays.fill(out, 0, n, offset);
+
+        for (int o = 0; o < frequencies.length; o++) {
+            double f = frequencies[o];
+            double amp = amplitudes[o];
+            double fx0 = x0 * f;
+            double fstep = step * f;
+
+            for (int gy = 0; gy < height; gy++) {
+                kernel.accumulateRow(out, gy * width, fx0, fstep, (y0 + gy * step) * f, width, amp);
+            }
+        }
+    }
+
+    @Override
+    public TerracraftNoise scale(double scale) {
+        return transform(1.0, scale, 0.0);
+    }
+
+    @Override
+    public TerracraftNoise offset(double offset) {
+        return transform(1.0, 1.0, offset);
+    }
+
+    @Override
+    public TerracraftNoise frequency(double freq) {
+        return transform(freq, 1.0, 0.0);
+    }
+}
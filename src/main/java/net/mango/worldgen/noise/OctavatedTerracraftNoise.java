@@ -1,41 +1,94 @@
 package net.mango.worldgen.noise;
 
-import net.minecraft.util.math.random.Random;
-
 public class OctavatedTerracraftNoise implements TerracraftNoise {
-    TerracraftNoise baseNoise;
+    final TerracraftNoise baseNoise;
+
+    final int octaves;
+    final double lacunarity;
+    final double gain;
+
+    // per octave frequency and amplitude, amplitudes already divided by their sum
+    private final double[] frequencies;
+    private final double[] amplitudes;
 
-    int octaves = 8;
-    double lacunarity = 2;
-    double gain = 0.5;
+    // per instance so nested octavated noises never share a buffer
+    private final ThreadLocal<double[]> octaveBuffer = ThreadLocal.withInitial(() -> new double[256]);
 
     public OctavatedTerracraftNoise(TerracraftNoise baseNoise, int octaves, double lacunarity, double gain) {
         this.baseNoise = baseNoise;
         this.octaves = octaves;
         this.lacunarity = lacunarity;
         this.gain = gain;
-    }
 
-    public OctavatedTerracraftNoise(int octaves, double lacunarity, double gain) {
-        this(new SimplexTerracraftNoise(Random.create()), octaves, lacunarity, gain);
-    }
+        this.frequencies = new double[octaves];
+        this.amplitudes = new double[octaves];
 
-    @Override
-    public double sample(double x, double y) {
-        double total = 0;
         double scope = 0.0;
-
         double freq = 1.0;
         double amp = 1.0;
 
         for (int i = 0; i < octaves; i++) {
-            total += baseNoise.sample(x * freq, y * freq) * amp;
+            frequencies[i] = freq;
+            amplitudes[i] = amp;
             scope += amp;
 
             freq *= lacunarity;
             amp *= gain;
         }
 
-        return total / scope;
+        for (int i = 0; i < octaves; i++) {
+            amplitudes[i] /= scope;
+        }
+    }
+
+    @Override
+    public TerracraftNoise compile() {
+        TerracraftNoise base = baseNoise.compile();
+
+        if (base instanceof SimplexTerracraftNoise simplex) {
+            return FusedSimplexNoise.of(simplex.kernel, octaves, lacunarity, gain);
+        }
+
+        // octaves of an affine base are the affine transform of the octaves
+        if (base instanceof AffineTerracraftNoise affine) {
+            return new AffineTerracraftNoise(new OctavatedTerracraftNoise(affine.base, octaves, lacunarity, gain), affine.frequency, affine.scale, affine.offset).compile();
+        }
+
+        return new OctavatedTerracraftNoise(base, octaves, lacunarity, gain);
+    }
+
+    @Override
+    public double sample(double x, double y) {
+        double total = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            double f = frequencies[i];
+            total += baseNoise.sample(x * f, y * f) * amplitudes[i];
+        }
+
+        return total;
+    }
+
+    @Override
+    public void sampleGrid(double[] out, double x0, double y0, double step, int width, int height) {
+        int n = width * height;
+
+        double[] octave = octaveBuffer.get();
+        if (octave.length < n) {
+            octave = new double[n];
+            octaveBuffer.set(octave);
+        }
+
+        for (int o = 0; o < octaves; o++) {
+            double f = frequencies[o];
+            double amp = amplitudes[o];
+            baseNoise.sampleGrid(octave, x0 * f, y0 * f, step * f, width, height);
+
+            if (o == 0) {
+                for (int i = 0; i < n; i++) out[i] = octave[i] * amp;
+            } else {
+                for (int i = 0; i < n; i++) out[i] += octave[i] * amp;
+            }
+        }
     }
 }
@@ -0,0 +1,45 @@
+package net.mango.worldgen.noise;
+
+/**
+ * Evaluates as much of a {@link SimplexKernel2D} row as it can in whole batches and returns how many points it
+ * wrote; the kernel finishes the rest one point at a time.
+ */
+interface SimplexBatch {
+    String VECTOR_MODULE = "jdk.incubator.vector";
+    // built in the vector source set, the only code compiled against the incubator module
+    String VECTOR_IMPL = "net.mango.worldgen.noise.VectorSimplexBatch";
+
+    SimplexBatch SCALAR = new SimplexBatch() {
+        @Override
+        public int lanes() {
+            return 1;
+        }
+
+        @Override
+        public int sampleRow(SimplexKernel2D kernel, double[] out, int offset, double x0, double step, double y, int count, double amp, boolean accumulate) {
+            return 0;
+        }
+    };
+
+    int lanes();
+
+    int sampleRow(SimplexKernel2D kernel, double[] out, int offset, double x0, double step, double y, int count, double amp, boolean accumulate);
+
+    static SimplexBatch load() {
+        // the vector class links against the incubator module, so it may only be loaded when the module is present
+        if (Boolean.getBoolean("terracraft.noise.scalar") || ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            SimplexKernel2D.logBatch("scalar", 1);
+            return SCALAR;
+        }
+
+        try {
+            SimplexBatch batch = (SimplexBatch) Class.forName(VECTOR_IMPL).getDeclaredConstructor().newInstance();
+            SimplexKernel2D.logBatch("vector", batch.lanes());
+
+            return batch;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            SimplexKernel2D.logBatch("scalar", 1);
+            return SCALAR;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package net.mango.worldgen.noise;
+
+import net.mango.TerraCraft;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.random.Random;
+
+/**
+ * 2D only copy of {@link net.minecraft.util.math.noise.SimplexNoiseSampler}, bit for bit identical for the same
+ * random.
+ * <p>
+ * The constructor consumes the random exactly like the vanilla sampler does, and {@link #sample} does the same
+ * floating point operations in the same order. The permutation is stored twice over so lookups need no masking,
+ * with the gradient index already reduced mod 12, and gradients are split into flat component arrays.
+ * <p>
+ * Rows go through {@link SimplexBatch}, which is the Vector API implementation when {@code jdk.incubator.vector}
+ * is in the boot layer and a scalar loop otherwise.
+ */
+public final class SimplexKernel2D {
+    static final double SQRT_3 = Math.sqrt(3.0);
+    static final double SKEW_FACTOR_2D = 0.5 * (SQRT_3 - 1.0);
+    static final double UNSKEW_FACTOR_2D = (3.0 - SQRT_3) / 6.0;
+
+    // the first 12 vanilla gradients, the only ones 2D sampling can pick
+    static final double[] GRAD_X = {1, -1, 1, -1, 1, -1, 1, -1, 0, 0, 0, 0};
+    static final double[] GRAD_Y = {1, 1, -1, -1, 0, 0, 0, 0, 1, -1, 1, -1};
+    static final double[] GRAD_Z = {0, 0, 0, 0, 1, 1, -1, -1, 1, 1, -1, -1};
+
+    private static final SimplexBatch BATCH = SimplexBatch.load();
+
+    final int[] perm = new int[512];
+    final int[] permMod12 = new int[512];
+
+    public SimplexKernel2D(Random random) {
+        // the origins are unused in 2D but still have to be drawn to keep the random in step with vanilla
+        random.nextDouble();
+        random.nextDouble();
+        random.nextDouble();
+
+        int[] permutation = new int[256];
+        for (int i = 0; i < 256; i++) {
+            permutation[i] = i;
+        }
+
+        for (int i = 0; i < 256; i++) {
+            int j = random.nextInt(256 - i);
+            int k = permutation[i];
+            permutation[i] = permutation[j + i];
+            permutation[j + i] = k;
+        }
+
+        for (int i = 0; i < 512; i++) {
+            perm[i] = permutation[i & 0xFF];
+            permMod12[i] = perm[i] % 12;
+        }
+    }
+
+    public static boolean isVectorized() {
+        return BATCH.lanes() > 1;
+    }
+
+    public double sample(double x, double y) {
+        double d = (x + y) * SKEW_FACTOR_2D;
+        int i = MathHelper.floor(x + d);
+        int j = MathHelper.floor(y + d);
+        double e = (i + j) * UNSKEW_FACTOR_2D;
+        double h = x - (i - e);
+        double k = y - (j - e);
+
+        int l;
+        int m;
+        if (h > k) {
+            l = 1;
+            m = 0;
+        } else {
+            l = 0;
+            m = 1;
+        }
+
+        double n = h - l + UNSKEW_FACTOR_2D;
+        double o = k - m + UNSKEW_FACTOR_2D;
+        double p = h - 1.0 + 2.0 * UNSKEW_FACTOR_2D;
+        double q = k - 1.0 + 2.0 * UNSKEW_FACTOR_2D;
+
+        int r = i & 0xFF;
+        int s = j & 0xFF;
+        int t = permMod12[r + perm[s]];
+        int u = permMod12[r + l + perm[s + m]];
+        int v = permMod12[r + 1 + perm[s + 1]];
+
+        return 70.0 * (corner(t, h, k) + corner(u, n, o) + corner(v, p, q));
+    }
+
+    static double corner(int gradient, double x, double y) {
+        double d = 0.5 - x * x - y * y - 0.0 * 0.0;
+        if (d < 0.0) return 0.0;
+
+        d *= d;
+        return d * d * (GRAD_X[gradient] * x + GRAD_Y[gradient] * y + GRAD_Z[gradient] * 0.0);
+    }
+
+    /**
+     * {@code out[offset + i] = sample(x0 + i * step, y)} for {@code i < count}.
+     */
+    public void sampleRow(double[] out, int offset, double x0, double step, double y, int count) {
+        int done = BATCH.sampleRow(this, out, offset, x0, step, y, count, 1.0, false);
+
+        for (int i = done; i < count; i++) {
+            out[offset + i] = sample(x0 + i * step, y);
+        }
+    }
+
+    /**
+     * {@code out[offset + i] += sample(x0 + i * step, y) * amp} for {@code i < count}.
+     */
+    public void accumulateRow(double[] out, int offset, double x0, double step, double y, int count, double amp) {
+        int done = BATCH.sampleRow(this, out, offset, x0, step, y, count, amp, true);
+
+        for (int i = done; i < count; i++) {
+            out[offset + i] += sample(x0 + i * step, y) * amp;
+        }
+    }
+
+    static void logBatch(String name, int lanes) {
+        TerraCraft.LOGGER.debug("simplex rows use the {} path with {} lanes", name, lanes);
+    }
+}
@@ -1,21 +1,27 @@
 package net.mango.worldgen.noise;
 
-import net.minecraft.util.math.noise.SimplexNoiseSampler;
 import net.minecraft.util.math.random.Random;
 
 public class SimplexTerracraftNoise implements TerracraftNoise {
-    SimplexNoiseSampler sampler;
+    final SimplexKernel2D kernel;
     
-    SimplexTerracraftNoise(SimplexNoiseSampler sampler) {
-        this.sampler = sampler;
+    SimplexTerracraftNoise(SimplexKernel2D kernel) {
+        this.kernel = kernel;
     }
 
     public SimplexTerracraftNoise(Random random) {
-        this(new SimplexNoiseSampler(random));
+        this(new SimplexKernel2D(random));
     }
     
     @Override
     public double sample(double x, double y) {
-        return sampler.sample(x, y);
+        return kernel.sample(x, y);
+    }
+
+    @Override
+    public void sampleGrid(double[] out, double x0, double y0, double step, int width, int height) {
+        for (int gy = 0; gy < height; gy++) {
+            kernel.sampleRow(out, gy * width, x0, step, y0 + gy * step, width);
+        }
     }
 }
@@ -3,12 +3,27 @@ package net.mango.worldgen.noise;
 public interface TerracraftNoise {
     double sample(double x, double y);
 
+    /**
+     * Samples a {@code width} x {@code height} grid into {@code out}, row major along x, where
+     * {@code out[j * width + i]} is the sample at ({@code x0 + i * step}, {@code y0 + j * step}).
+     */
+    default void sampleGrid(double[] out, double x0, double y0, double step, int width, int height) {
+        int i = 0;
+        for (int gy = 0; gy < height; gy++) {
+            double y = y0 + gy * step;
+
+            for (int gx = 0; gx < width; gx++) {
+                out[i++] = sample(x0 + gx * step, y);
+            }
+        }
+    }
+
     default TerracraftNoise scale(double scale) {
-        return (x, y) -> this.sample(x, y) * scale;
+        return new AffineTerracraftNoise(this, 1.0, scale, 0.0);
     }
 
     default TerracraftNoise offset(double offset) {
-        return (x, y) -> this.sample(x, y) + offset;
+        return new AffineTerracraftNoise(this, 1.0, 1.0, offset);
     }
 
     default TerracraftNoise octavate(int octaves, double lacu, double gain) {
@@ -16,6 +31,14 @@ public interface TerracraftNoise {
     }
 
     default TerracraftNoise frequency(double freq) {
-        return (x, y) -> this.sample(x * freq, y * freq);
+        return new AffineTerracraftNoise(this, freq, 1.0, 0.0);
+    }
+
+    /**
+     * Folds this chain into the flattest equivalent node, ideally a single {@link FusedSimplexNoise}. Noises the
+     * compiler does not understand are kept as they are.
+     */
+    default TerracraftNoise compile() {
+        return this;
     }
 }
@@ -0,0 +1,95 @@
+package net.mango.worldgen.pregen;
+
+import net.mango.TerraCraft;
+import net.mango.worldgen.stats.WorldgenTimings;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+
+import java.util.function.Consumer;
+
+/**
+ * Owns the single pregeneration task a server may run at a time. Only touched from the server thread.
+ */
+public class PregenManager {
+    private static final int AUTO_PARALLELISM = 16;
+    private static final long AUTO_BUDGET_NANOS = 2_000_000L;
+
+    private static PregenTask active;
+    private static PregenState autoState;
+
+    private PregenManager() {}
+
+    public static PregenTask getActive() {
+        return active;
+    }
+
+    public static PregenState getState(MinecraftServer server) {
+        return server.getOverworld().getPersistentStateManager().getOrCreate(PregenState.TYPE);
+    }
+
+    public static boolean start(ServerWorld world, int parallelism, long budgetNanos, Consumer<String> reporter) {
+        if (active != null) return false;
+
+        long[] chunks = PregenTask.chunksInBorder(world.getWorldBorder());
+
+        // the reported percentiles should describe this run only
+        WorldgenTimings.reset();
+
+        active = new PregenTask(world, chunks, 0, parallelism, budgetNanos, false, reporter);
+        TerraCraft.LOGGER.info("Pregenerating {} chunks with parallelism {}", chunks.length, parallelism);
+
+        return true;
+    }
+
+    /**
+     * Starts or resumes the background pregeneration if it is enabled for this world and not finished yet.
+     */
+    public static boolean startAuto(MinecraftServer server) {
+        PregenState state = getState(server);
+        if (active != null || !state.isAuto() || state.isFinished()) return false;
+
+        ServerWorld world = server.getOverworld();
+        long[] chunks = PregenTask.chunksInBorder(world.getWorldBorder());
+        int resume = state.resumeIndex(chunks.length);
+
+        autoState = state;
+        active = new PregenTask(world, chunks, resume, AUTO_PARALLELISM, AUTO_BUDGET_NANOS, true, TerraCraft.LOGGER::debug);
+        TerraCraft.LOGGER.info("Background pregeneration resuming at chunk {}/{}", resume, chunks.length);
+
+        return true;
+    }
+
+    public static boolean stop() {
+        if (active == null) return false;
+
+        active.cancel();
+        saveProgress();
+
+        active = null;
+        autoState = null;
+
+        return true;
+    }
+
+    public static void tick(MinecraftServer server) {
+        if (active == null) return;
+
+        boolean finished = active.tick();
+        saveProgress();
+
+        if (finished) {
+            TerraCraft.LOGGER.info("Pregeneration finished, {} chunks", active.getTotal());
+            active = null;
+            autoState = null;
+
+            // the whole world exists now, keep it for the next world with this seed
+            RegionCache.snapshot(server);
+        }
+    }
+
+    private static void saveProgress() {
+        if (autoState != null) {
+            autoState.setProgress(active.getTotal(), active.getCompletedPrefix());
+        }
+    }
+}
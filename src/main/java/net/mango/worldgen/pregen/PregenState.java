@@ -0,0 +1,90 @@
+package net.mango.worldgen.pregen;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.mango.TerraCraft;
+import net.minecraft.world.PersistentState;
+import net.minecraft.world.PersistentStateType;
+
+/**
+ * Saved progress of the automatic background pregeneration, stored with the overworld.
+ */
+public class PregenState extends PersistentState {
+    public static final Codec<PregenState> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+            Codec.BOOL.fieldOf("auto").forGetter(PregenState::isAuto),
+            Codec.INT.fieldOf("total").forGetter(PregenState::getTotal),
+            // older saves counted chunks as done before they were full, their "completed" is dropped and pregen restarts
+            Codec.INT.optionalFieldOf("full_prefix", 0).forGetter(PregenState::getCompleted),
+            Codec.BOOL.optionalFieldOf("played", false).forGetter(PregenState::wasPlayed)
+    ).apply(instance, PregenState::new));
+
+    public static final PersistentStateType<PregenState> TYPE = new PersistentStateType<>(TerraCraft.MOD_ID + "_pregen", PregenState::new, CODEC, null);
+
+    private boolean auto;
+    private int total;
+    private int completed;
+    private boolean played;
+
+    public PregenState() {
+        this(false, 0, 0, false);
+    }
+
+    private PregenState(boolean auto, int total, int completed, boolean played) {
+        this.auto = auto;
+        this.total = total;
+        this.completed = completed;
+        this.played = played;
+    }
+
+    public boolean isAuto() {
+        return auto;
+    }
+
+    public void setAuto(boolean auto) {
+        this.auto = auto;
+        markDirty();
+    }
+
+    /**
+     * Whether a player has ever joined this world. Once one has, it may hold builds and looted chests, and it is no
+     * longer the pristine generated world.
+     */
+    public boolean wasPlayed() {
+        return played;
+    }
+
+    public void markPlayed() {
+        if (played) return;
+
+        played = true;
+        markDirty();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public boolean isFinished() {
+        return total > 0 && completed >= total;
+    }
+
+    /**
+     * Where a task over {@code total} chunks should start; a different total means the border moved and the
+     * saved progress no longer lines up with the chunk order.
+     */
+    public int resumeIndex(int total) {
+        return this.total == total ? Math.min(completed, total) : 0;
+    }
+
+    public void setProgress(int total, int completed) {
+        if (this.total == total && this.completed == completed) return;
+
+        this.total = total;
+        this.completed = completed;
+        markDirty();
+    }
+}
@@ -0,0 +1,201 @@
+package net.mango.worldgen.pregen;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.mango.TerraCraft;
+import net.mango.worldgen.stats.WorldgenTimings;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.Registry;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerChunkManager;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.border.WorldBorder;
+import net.minecraft.world.chunk.ChunkStatus;
+
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Drives every chunk inside the world border through the normal chunk pipeline.
+ * <p>
+ * Chunks are requested by adding a ticket and retired once their full status future completes, with at most
+ * {@code parallelism} chunks in flight. The server thread only ever spends {@code budgetNanos} per tick on
+ * bookkeeping; the generation itself runs on the worldgen workers. An adaptive task additionally backs off whenever
+ * the server's average tick time climbs past {@link #TARGET_TICK_NANOS}.
+ */
+public class PregenTask {
+    private static final long REPORT_INTERVAL_NANOS = 5_000_000_000L;
+    private static final long TARGET_TICK_NANOS = 40_000_000L;
+
+    // only loads the chunk and is never saved, so a crash leaves nothing behind and forceloaded chunks stay forced
+    public static ChunkTicketType TICKET_TYPE;
+
+    private final ServerWorld world;
+    private final long[] chunks;
+    private final int parallelism;
+    private final long budgetNanos;
+    private final boolean adaptive;
+    private final Consumer<String> reporter;
+
+    private final IntArrayList inFlight = new IntArrayList();
+    // indices whose full status future completed, filled by the future callbacks
+    private final Queue<Integer> finished = new ConcurrentLinkedQueue<>();
+    private final BitSet done = new BitSet();
+
+    private final int startIndex;
+    private int next;
+    private int completed;
+    private int completedPrefix;
+    private int allowed;
+
+    private final long startNanos = System.nanoTime();
+    private long lastReportNanos = startNanos;
+
+    /**
+     * @param startIndex chunks before this index are treated as already generated
+     */
+    public PregenTask(ServerWorld world, long[] chunks, int startIndex, int parallelism, long budgetNanos, boolean adaptive, Consumer<String> reporter) {
+        this.world = world;
+        this.chunks = chunks;
+        this.parallelism = parallelism;
+        this.budgetNanos = budgetNanos;
+        this.adaptive = adaptive;
+        this.reporter = reporter;
+
+        this.startIndex = startIndex;
+        this.next = startIndex;
+        this.completed = startIndex;
+        this.completedPrefix = startIndex;
+        this.allowed = adaptive ? 1 : parallelism;
+    }
+
+    public static void register() {
+        TICKET_TYPE = Registry.register(Registries.TICKET_TYPE, Identifier.of(TerraCraft.MOD_ID, "pregen"), new ChunkTicketType(0L, ChunkTicketType.FOR_LOADING));
+    }
+
+    /**
+     * Every chunk whose area intersects the border, in square rings growing outward from the center chunk.
+     */
+    public static long[] chunksInBorder(WorldBorder border) {
+        int minX = MathHelper.floor(border.getBoundWest()) >> 4;
+        int maxX = (MathHelper.ceil(border.getBoundEast()) - 1) >> 4;
+        int minZ = MathHelper.floor(border.getBoundNorth()) >> 4;
+        int maxZ = (MathHelper.ceil(border.getBoundSouth()) - 1) >> 4;
+
+        int centerX = MathHelper.floor(border.getCenterX()) >> 4;
+        int centerZ = MathHelper.floor(border.getCenterZ()) >> 4;
+
+        int maxRing = Math.max(Math.max(centerX - minX, maxX - centerX), Math.max(centerZ - minZ, maxZ - centerZ));
+        LongArrayList chunks = new LongArrayList((maxX - minX + 1) * (maxZ - minZ + 1));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int dz = -ring; dz <= ring; dz++) {
+                // only the edges of the ring, the inside was emitted by the smaller rings
+                int step = (dz == -ring || dz == ring) ? 1 : ring * 2;
+
+                for (int dx = -ring; dx <= ring; dx += step) {
+                    int x = centerX + dx;
+                    int z = centerZ + dz;
+
+                    if (x >= minX && x <= maxX && z >= minZ && z <= maxZ) {
+                        chunks.add(ChunkPos.toLong(x, z));
+                    }
+                }
+            }
+        }
+
+        return chunks.toLongArray();
+    }
+
+    /**
+     * @return true once every chunk has been generated
+     */
+    public boolean tick() {
+        long deadline = System.nanoTime() + budgetNanos;
+        ServerChunkManager manager = world.getChunkManager();
+
+        Integer index;
+        while ((index = finished.poll()) != null) {
+            manager.removeTicket(TICKET_TYPE, new ChunkPos(chunks[index]), 0);
+
+            inFlight.rem(index.intValue());
+            done.set(index);
+            completed++;
+        }
+
+        while (done.get(completedPrefix)) {
+            completedPrefix++;
+        }
+
+        if (adaptive) {
+            if (world.getServer().getAverageNanosPerTick() > TARGET_TICK_NANOS) {
+                allowed = Math.max(1, allowed / 2);
+            } else if (allowed < parallelism) {
+                allowed++;
+            }
+        }
+
+        while (inFlight.size() < allowed && next < chunks.length && System.nanoTime() < deadline) {
+            int requested = next++;
+            long pos = chunks[requested];
+            manager.addTicket(TICKET_TYPE, new ChunkPos(pos), 0);
+            inFlight.add(requested);
+
+            // only looks the future up and never waits on it, a chunk that failed to load counts as done so it frees its slot
+            manager.getChunkFutureSyncOnMainThread(ChunkPos.getPackedX(pos), ChunkPos.getPackedZ(pos), ChunkStatus.FULL, true)
+                    .whenComplete((chunk, error) -> finished.add(requested));
+        }
+
+        long now = System.nanoTime();
+        boolean finished = completed == chunks.length;
+
+        if (finished || now - lastReportNanos >= REPORT_INTERVAL_NANOS) {
+            lastReportNanos = now;
+            report(now);
+        }
+
+        return finished;
+    }
+
+    public void cancel() {
+        ServerChunkManager manager = world.getChunkManager();
+
+        for (int i = 0; i < inFlight.size(); i++) {
+            manager.removeTicket(TICKET_TYPE, new ChunkPos(chunks[inFlight.getInt(i)]), 0);
+        }
+
+        inFlight.clear();
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Number of leading chunks that have all reached full status, which is where a resumed task can safely start.
+     */
+    public int getCompletedPrefix() {
+        return completedPrefix;
+    }
+
+    public int getTotal() {
+        return chunks.length;
+    }
+
+    private void report(long now) {
+        double seconds = (now - startNanos) / 1.0e9;
+
+        reporter.accept(String.format(Locale.ROOT, "pregen %d/%d (%.1f%%) %.1f chunks/s, %d/%d in flight",
+                completed, chunks.length, 100.0 * completed / chunks.length, (completed - startIndex) / Math.max(seconds, 1.0e-3), inFlight.size(), allowed));
+
+        for (WorldgenTimings.Stage stage : WorldgenTimings.Stage.values()) {
+            reporter.accept("  " + WorldgenTimings.summary(stage));
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package net.mango.worldgen.pregen;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.mango.TerraCraft;
+import net.mango.worldgen.CaveChestIndex;
+import net.mango.worldgen.small_world.SmallWorldChunkGenerator;
+import net.minecraft.SharedConstants;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Util;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.world.World;
+import net.minecraft.world.dimension.DimensionOptions;
+import net.minecraft.world.dimension.DimensionType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Fully pregenerated overworlds kept on disk by seed, so a new world with a seed that has been played before copies
+ * the finished region files instead of generating anything.
+ * <p>
+ * Entries are keyed by the seed, the game's data version and a hash of every file the mod ships, so any change to
+ * the generator's code or data misses the old entries. They are only ever written whole: a snapshot is copied off the
+ * server thread once pregeneration finishes and moved into place in one step.
+ * Enabled with {@code -Dterracraft.regionCache=true}.
+ */
+public final class RegionCache {
+    private static final boolean ENABLED = Boolean.getBoolean("terracraft.regionCache");
+    private static final Path ROOT = FabricLoader.getInstance().getGameDir().resolve(TerraCraft.MOD_ID).resolve("region_cache");
+
+    // the whole chunk storage, chunks without their entities or poi records would be broken
+    private static final List<String> CHUNK_STORAGE = List.of("region", "entities", "poi");
+    // everything generation leaves behind in the overworld folder, relative to it
+    private static final List<String> CACHED_PATHS = Stream.concat(CHUNK_STORAGE.stream(), Stream.of(
+            "data/" + CaveChestIndex.TYPE.id() + ".dat",
+            "data/" + PregenState.TYPE.id() + ".dat"
+    )).toList();
+
+    private static String codeHash;
+    private static CompletableFuture<Void> pendingSnapshot = CompletableFuture.completedFuture(null);
+
+    private RegionCache() {}
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Copies the cached overworld for this seed into a world that has no chunk, entity or poi data yet. Runs before
+     * the worlds are created, so nothing has the region files open.
+     */
+    public static void restore(MinecraftServer server) {
+        if (!ENABLED || !isSmallWorld(server)) return;
+
+        Path entry = ROOT.resolve(key(server));
+        Path world = overworldDir(server);
+        if (!Files.isDirectory(entry) || hasChunkData(world)) return;
+
+        long start = System.nanoTime();
+        try {
+            for (String path : CACHED_PATHS) {
+                copy(entry.resolve(path), world.resolve(path));
+            }
+        } catch (IOException | UncheckedIOException e) {
+            TerraCraft.LOGGER.error("Failed to restore cached regions from {}, generating from scratch", entry, e);
+            CACHED_PATHS.forEach(path -> delete(world.resolve(path)));
+            return;
+        }
+
+        TerraCraft.LOGGER.info("Restored cached regions from {} in {} ms", entry, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Stores the overworld once pregeneration covered all of it, unless this seed is cached already. Saves and
+     * flushes every chunk first and turns saving off until the copy is done, so the copy sees complete region files
+     * that nothing writes to. The copy itself runs on the io workers.
+     * <p>
+     * Only a world no player has ever joined is stored, anything else may carry builds, broken terrain or looted
+     * chests. Background pregen on a played world therefore never produces a cache entry.
+     */
+    public static void snapshot(MinecraftServer server) {
+        if (!ENABLED || !isSmallWorld(server)) return;
+
+        Path entry = ROOT.resolve(key(server));
+        if (Files.isDirectory(entry)) return;
+
+        if (server.getCurrentPlayerCount() > 0 || PregenManager.getState(server).wasPlayed() || hasPlayerData(server)) {
+            TerraCraft.LOGGER.info("Not caching regions for {}, players have been in this world", entry.getFileName());
+            return;
+        }
+
+        long start = System.nanoTime();
+        server.saveAll(true, true, true);
+
+        // same as save-off, chunks and entities stay in memory until the copy is done
+        ServerWorld overworld = server.getOverworld();
+        boolean savingDisabled = overworld.savingDisabled;
+        overworld.savingDisabled = true;
+
+        Path world = overworldDir(server);
+        pendingSnapshot = CompletableFuture.runAsync(() -> store(world, entry, start), Util.getIoWorkerExecutor())
+                .whenComplete((result, error) -> server.execute(() -> overworld.savingDisabled = savingDisabled));
+    }
+
+    /**
+     * Waits for a snapshot that is still being copied, the final save of a stopping server must not overwrite the
+     * region files under it.
+     */
+    public static void awaitSnapshot(MinecraftServer server) {
+        pendingSnapshot.join();
+    }
+
+    private static void store(Path world, Path entry, long start) {
+        Path staging = ROOT.resolve(entry.getFileName() + ".tmp");
+        try {
+            delete(staging);
+            for (String path : CACHED_PATHS) {
+                copy(world.resolve(path), staging.resolve(path));
+            }
+
+            // readers never see a half written entry
+            Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // another server cached the same seed first
+            delete(staging);
+            return;
+        } catch (IOException | UncheckedIOException e) {
+            TerraCraft.LOGGER.error("Failed to cache regions to {}", entry, e);
+            delete(staging);
+            return;
+        }
+
+        TerraCraft.LOGGER.info("Cached regions to {} in {} ms", entry, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static String key(MinecraftServer server) {
+        long seed = server.getSaveProperties().getGeneratorOptions().getSeed();
+        int dataVersion = SharedConstants.getGameVersion().dataVersion().id();
+
+        return Long.toHexString(seed) + "-" + Integer.toHexString(dataVersion) + "-" + codeHash();
+    }
+
+    // every class and resource of the mod, paths included, walked in a fixed order so the hash only depends on content
+    private static synchronized String codeHash() {
+        if (codeHash != null) return codeHash;
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            for (Path root : FabricLoader.getInstance().getModContainer(TerraCraft.MOD_ID).orElseThrow().getRootPaths()) {
+                try (Stream<Path> files = Files.walk(root)) {
+                    for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile).sorted(Comparator.comparing(Path::toString))::iterator) {
+                        digest.update(root.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                        digest.update(Files.readAllBytes(file));
+                    }
+                }
+            }
+
+            // the first 64 bits are plenty to tell builds apart
+            codeHash = HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return codeHash;
+    }
+
+    private static boolean isSmallWorld(MinecraftServer server) {
+        DimensionOptions overworld = server.getCombinedDynamicRegistries().getCombinedRegistryManager()
+                .getOrThrow(RegistryKeys.DIMENSION)
+                .get(DimensionOptions.OVERWORLD);
+
+        return overworld != null && overworld.chunkGenerator() instanceof SmallWorldChunkGenerator;
+    }
+
+    private static Path overworldDir(MinecraftServer server) {
+        return DimensionType.getSaveDirectory(World.OVERWORLD, server.getSavePath(WorldSavePath.ROOT));
+    }
+
+    private static boolean hasChunkData(Path world) {
+        for (String path : CHUNK_STORAGE) {
+            if (!isEmpty(world.resolve(path))) return true;
+        }
+
+        return false;
+    }
+
+    // worlds from before the played flag still have the files of everyone who joined
+    private static boolean hasPlayerData(MinecraftServer server) {
+        return !isEmpty(server.getSavePath(WorldSavePath.PLAYERDATA));
+    }
+
+    private static boolean isEmpty(Path dir) {
+        if (!Files.isDirectory(dir)) return true;
+
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.findAny().isEmpty();
+        } catch (IOException e) {
+            // when in doubt treat it as used and leave it alone
+            return false;
+        }
+    }
+
+    private static void copy(Path from, Path to) throws IOException {
+        if (!Files.exists(from)) return;
+
+        try (Stream<Path> files = Files.walk(from)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Path target = to.resolve(from.relativize(file).toString());
+
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    private static void delete(Path path) {
+        if (!Files.exists(path)) return;
+
+        try (Stream<Path> files = Files.walk(path)) {
+            // children before their directories
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            TerraCraft.LOGGER.warn("Failed to clean up {}", path, e);
+        }
+    }
+}
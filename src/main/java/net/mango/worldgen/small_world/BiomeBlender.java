@@ -0,0 +1,174 @@
+package net.mango.worldgen.small_world;
+
+import net.mango.worldgen.biomes.TerracraftBiome;
+import net.mango.worldgen.biomes.TerracraftBiomeBlendParams;
+import net.mango.worldgen.noise.TerracraftNoise;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Blends the per-biome height maps across biome borders, one chunk at a time.
+ * <p>
+ * Weights are fixed-size vectors indexed by biome ordinal. They are computed on a coarse {@link #COARSE_STEP} grid
+ * from a tent kernel over the biome layout, skewed by how close the local temperature and humidity are to each
+ * biome's {@link TerracraftBiomeBlendParams}, and then bilinearly interpolated per column. Height maps are only
+ * sampled for biomes that actually carry weight somewhere in the chunk.
+ */
+public final class BiomeBlender {
+    private static final TerracraftBiome[] BIOMES = TerracraftBiome.values();
+    private static final int BIOME_COUNT = BIOMES.length;
+
+    private static final int COARSE_STEP = 4;
+    private static final int COARSE_SIZE = 16 / COARSE_STEP + 1;
+    private static final int COARSE_POINTS = COARSE_SIZE * COARSE_SIZE;
+
+    private static final int KERNEL_RAD = 4;
+    private static final int KERNEL_SPACING = 8;
+
+    /** How far past a chunk's edge the layout can still affect its heights. */
+    static final int BLEND_RADIUS = KERNEL_RAD * KERNEL_SPACING;
+    private static final double CLIMATE_SHARPNESS = 4.0;
+
+    private final BiomeLayout layout;
+    private final TerracraftNoise tempMap;
+    private final TerracraftNoise humidMap;
+    private final TerracraftNoise[] surfaceMaps;
+    private final TerracraftNoise[] terrainMaps;
+
+    private final double[] biomeTemp = new double[BIOME_COUNT];
+    private final double[] biomeHumid = new double[BIOME_COUNT];
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private static final class Scratch {
+        final double[] coarse = new double[BIOME_COUNT * COARSE_POINTS];
+        final double[] point = new double[BIOME_COUNT];
+        final double[] sampled = new double[256];
+        final double[] surface = new double[256];
+        final double[] terrain = new double[256];
+    }
+
+    public BiomeBlender(BiomeLayout layout, List<TerracraftBiomeBlendParams> blendParams, NoiseRegistry noises) {
+        this.layout = layout;
+        this.tempMap = noises.temperature();
+        this.humidMap = noises.humidity();
+        this.surfaceMaps = new TerracraftNoise[BIOME_COUNT];
+        this.terrainMaps = new TerracraftNoise[BIOME_COUNT];
+
+        for (TerracraftBiome biome : BIOMES) {
+            surfaceMaps[biome.ordinal()] = noises.surfaceMap(biome);
+            terrainMaps[biome.ordinal()] = noises.terrainMap(biome);
+        }
+
+        for (TerracraftBiomeBlendParams params : blendParams) {
+            biomeTemp[params.biome().ordinal()] = params.temp();
+            biomeHumid[params.biome().ordinal()] = params.humidity();
+        }
+    }
+
+    public double sampleTemperature(int x, int z) {
+        return tempMap.sample(x, z);
+    }
+
+    public double sampleHumidity(int x, int z) {
+        return humidMap.sample(x, z);
+    }
+
+    /**
+     * Writes the blended surface and terrain heights of every column of the chunk, indexed like
+     * {@link ColumnHeightCache.ChunkHeights}.
+     */
+    public void blendChunk(int chunkX, int chunkZ, short[] surfaceOut, short[] terrainOut) {
+        Scratch s = scratch.get();
+
+        int startX = chunkX << 4;
+        int startZ = chunkZ << 4;
+
+        int present = 0;
+        for (int cz = 0; cz < COARSE_SIZE; cz++) {
+            for (int cx = 0; cx < COARSE_SIZE; cx++) {
+                int point = cz * COARSE_SIZE + cx;
+                computeWeights(startX + cx * COARSE_STEP, startZ + cz * COARSE_STEP, s.point);
+
+                for (int b = 0; b < BIOME_COUNT; b++) {
+                    s.coarse[b * COARSE_POINTS + point] = s.point[b];
+                    if (s.point[b] > 0.0) present |= 1 << b;
+                }
+            }
+        }
+
+        Arrays.fill(s.surface, 0.0);
+        Arrays.fill(s.terrain, 0.0);
+
+        for (int b = 0; b < BIOME_COUNT; b++) {
+            if ((present & (1 << b)) == 0) continue;
+
+            int weights = b * COARSE_POINTS;
+
+            surfaceMaps[b].sampleGrid(s.sampled, startX, startZ, 1.0, 16, 16);
+            accumulate(s.coarse, weights, s.sampled, s.surface);
+
+            terrainMaps[b].sampleGrid(s.sampled, startX, startZ, 1.0, 16, 16);
+            accumulate(s.coarse, weights, s.sampled, s.terrain);
+        }
+
+        for (int i = 0; i < 256; i++) {
+            surfaceOut[i] = (short) MathHelper.floor(s.surface[i]);
+            terrainOut[i] = (short) MathHelper.floor(s.terrain[i]);
+        }
+    }
+
+    private static void accumulate(double[] coarse, int weights, double[] sampled, double[] out) {
+        for (int lz = 0; lz < 16; lz++) {
+            int cz = lz / COARSE_STEP;
+            double fz = (lz % COARSE_STEP) / (double) COARSE_STEP;
+
+            for (int lx = 0; lx < 16; lx++) {
+                int cx = lx / COARSE_STEP;
+                double fx = (lx % COARSE_STEP) / (double) COARSE_STEP;
+
+                int p = weights + cz * COARSE_SIZE + cx;
+                double w = MathHelper.lerp2(fx, fz, coarse[p], coarse[p + 1], coarse[p + COARSE_SIZE], coarse[p + COARSE_SIZE + 1]);
+                if (w == 0.0) continue;
+
+                int i = lz << 4 | lx;
+                out[i] += w * sampled[i];
+            }
+        }
+    }
+
+    private void computeWeights(int x, int z, double[] out) {
+        Arrays.fill(out, 0.0);
+
+        for (int kz = -KERNEL_RAD; kz <= KERNEL_RAD; kz++) {
+            int wz = KERNEL_RAD + 1 - Math.abs(kz);
+
+            for (int kx = -KERNEL_RAD; kx <= KERNEL_RAD; kx++) {
+                int wx = KERNEL_RAD + 1 - Math.abs(kx);
+
+                TerracraftBiome biome = layout.getBiomeAt(x + kx * KERNEL_SPACING, z + kz * KERNEL_SPACING);
+                out[biome.ordinal()] += wx * wz;
+            }
+        }
+
+        double temp = tempMap.sample(x, z);
+        double humid = humidMap.sample(x, z);
+
+        double total = 0.0;
+        for (int b = 0; b < BIOME_COUNT; b++) {
+            if (out[b] == 0.0) continue;
+
+            double dt = temp - biomeTemp[b];
+            double dh = humid - biomeHumid[b];
+            out[b] /= 1.0 + CLIMATE_SHARPNESS * (dt * dt + dh * dh);
+
+            total += out[b];
+        }
+
+        for (int b = 0; b < BIOME_COUNT; b++) {
+            out[b] /= total;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package net.mango.worldgen.small_world;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import net.mango.worldgen.biomes.TerracraftBiome;
+
+import java.util.Arrays;
+
+/**
+ * Immutable cell table of the small world biome layout.
+ * <p>
+ * Cells are {@link SmallWorldParams#CELL_SIZE} blocks wide and centered on multiples of the cell size, so the
+ * table only has to cover the cells up to the beach ring; everything past it is ocean.
+ * <p>
+ * Layouts are saved with the world as {@link #CODEC}, 4 bit biome ordinals packed 16 to a long.
+ */
+public final class BiomeLayout {
+    public static final int GRID_RAD = SmallWorldParams.BEACH_CELL_DISTANCE + 1;
+    public static final int GRID_SIZE = GRID_RAD * 2 + 1;
+
+    private static final TerracraftBiome[] BIOMES = TerracraftBiome.values();
+    private static final int HALF_CELL = SmallWorldParams.CELL_SIZE / 2;
+
+    private static final int BITS_PER_CELL = 4;
+    private static final int CELLS_PER_LONG = Long.SIZE / BITS_PER_CELL;
+    private static final int PACKED_LENGTH = (GRID_SIZE * GRID_SIZE + CELLS_PER_LONG - 1) / CELLS_PER_LONG;
+
+    public static final Codec<BiomeLayout> CODEC = Codec.LONG_STREAM.comapFlatMap(
+            stream -> unpack(stream.toArray()),
+            layout -> Arrays.stream(layout.pack())
+    );
+
+    private final byte[] cells;
+
+    private BiomeLayout(byte[] cells) {
+        this.cells = cells;
+    }
+
+    @FunctionalInterface
+    public interface CellBiomes {
+        TerracraftBiome at(int cellX, int cellZ);
+    }
+
+    public static BiomeLayout bake(CellBiomes biomes) {
+        byte[] cells = new byte[GRID_SIZE * GRID_SIZE];
+
+        for (int cz = -GRID_RAD; cz <= GRID_RAD; cz++) {
+            for (int cx = -GRID_RAD; cx <= GRID_RAD; cx++) {
+                cells[(cz + GRID_RAD) * GRID_SIZE + cx + GRID_RAD] = (byte) biomes.at(cx, cz).ordinal();
+            }
+        }
+
+        return new BiomeLayout(cells);
+    }
+
+    long[] pack() {
+        long[] packed = new long[PACKED_LENGTH];
+
+        for (int i = 0; i < cells.length; i++) {
+            packed[i / CELLS_PER_LONG] |= (long) cells[i] << (i % CELLS_PER_LONG * BITS_PER_CELL);
+        }
+
+        return packed;
+    }
+
+    static DataResult<BiomeLayout> unpack(long[] packed) {
+        // a different length means the grid size changed since the layout was saved
+        if (packed.length != PACKED_LENGTH) {
+            return DataResult.error(() -> "Expected " + PACKED_LENGTH + " packed layout longs, got " + packed.length);
+        }
+
+        byte[] cells = new byte[GRID_SIZE * GRID_SIZE];
+        for (int i = 0; i < cells.length; i++) {
+            int ordinal = (int) (packed[i / CELLS_PER_LONG] >>> (i % CELLS_PER_LONG * BITS_PER_CELL)) & ((1 << BITS_PER_CELL) - 1);
+            if (ordinal >= BIOMES.length) {
+                return DataResult.error(() -> "Unknown biome ordinal " + ordinal + " in saved layout");
+            }
+
+            cells[i] = (byte) ordinal;
+        }
+
+        return DataResult.success(new BiomeLayout(cells));
+    }
+
+    public TerracraftBiome getCellBiome(int cellX, int cellZ) {
+        int gx = cellX + GRID_RAD;
+        int gz = cellZ + GRID_RAD;
+
+        // unsigned compare folds the negative check into the upper bound check
+        if (Integer.compareUnsigned(gx, GRID_SIZE) >= 0 || Integer.compareUnsigned(gz, GRID_SIZE) >= 0) {
+            return TerracraftBiome.OCEAN;
+        }
+
+        return BIOMES[cells[gz * GRID_SIZE + gx]];
+    }
+
+    public TerracraftBiome getBiomeAt(int x, int z) {
+        return getCellBiome((x + HALF_CELL) >> SmallWorldParams.CELL_SHIFT, (z + HALF_CELL) >> SmallWorldParams.CELL_SHIFT);
+    }
+}
@@ -0,0 +1,216 @@
+package net.mango.worldgen.small_world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.noise.SimplexNoiseSampler;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+
+/**
+ * Carves winding tunnels and open caverns out of the stone below the surface.
+ * <p>
+ * Density is negative inside a cave. It is the lower of a tunnel field, small where two independent noises cross
+ * zero together so the tunnels come out as long worms, and a cavern field that opens wherever a third noise is high.
+ * The noise is only sampled on a {@link #CELL_XZ} x {@link #CELL_Y} x {@link #CELL_XZ} lattice per chunk and
+ * trilinearly interpolated in between. Since interpolation never leaves the range of a cell's corners, a cell, or a
+ * whole section, whose corners are all solid is skipped without touching a single block.
+ */
+public final class CaveCarver {
+    static final int CELL_XZ = 4;
+    static final int CELL_Y = 8;
+    static final int LATTICE_XZ = 16 / CELL_XZ + 1;
+
+    private static final int MAX_LATTICE_Y = SmallWorldParams.WORLD_HEIGHT / CELL_Y + 1;
+
+    // caves stay this far below the surface so they never break through the terrain or the sea floor
+    public static final int SURFACE_MARGIN = 6;
+    private static final int FLOOR_Y = SmallWorldParams.BEDROCK_Y + 5;
+
+    private static final double TUNNEL_FREQ = 1.0 / 48.0;
+    private static final double TUNNEL_FREQ_Y = 1.0 / 32.0;
+    private static final double TUNNEL_RADIUS_SQ = 0.09 * 0.09;
+
+    private static final double CAVERN_FREQ = 1.0 / 96.0;
+    private static final double CAVERN_FREQ_Y = 1.0 / 48.0;
+    private static final double CAVERN_THRESHOLD = 0.6;
+
+    private static final BlockState STONE = Blocks.STONE.getDefaultState();
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+
+    private final SimplexNoiseSampler tunnelA;
+    private final SimplexNoiseSampler tunnelB;
+    private final SimplexNoiseSampler cavern;
+
+    private final ThreadLocal<double[]> lattice = ThreadLocal.withInitial(() -> new double[LATTICE_XZ * LATTICE_XZ * MAX_LATTICE_Y]);
+
+    public CaveCarver(NoiseRegistry.CaveNoise noise) {
+        this.tunnelA = noise.tunnelA();
+        this.tunnelB = noise.tunnelB();
+        this.cavern = noise.cavern();
+    }
+
+    double density(int x, int y, int z) {
+        double a = tunnelA.sample(x * TUNNEL_FREQ, y * TUNNEL_FREQ_Y, z * TUNNEL_FREQ);
+        double b = tunnelB.sample(x * TUNNEL_FREQ, y * TUNNEL_FREQ_Y, z * TUNNEL_FREQ);
+        double tunnel = a * a + b * b - TUNNEL_RADIUS_SQ;
+
+        double open = CAVERN_THRESHOLD - cavern.sample(x * CAVERN_FREQ, y * CAVERN_FREQ_Y, z * CAVERN_FREQ);
+        return Math.min(tunnel, open);
+    }
+
+    /**
+     * Highest y that may be carved anywhere in a chunk with these heights, or below {@link #FLOOR_Y} if none.
+     */
+    static int carveTop(ColumnHeightCache.ChunkHeights heights) {
+        int maxTop = Integer.MIN_VALUE;
+        for (short top : heights.surface()) {
+            maxTop = Math.max(maxTop, top);
+        }
+
+        return maxTop - SURFACE_MARGIN;
+    }
+
+    /**
+     * Samples the density lattice of a chunk up to {@code carveTop} into this thread's buffer and returns it,
+     * laid out {@code [(iy * LATTICE_XZ + iz) * LATTICE_XZ + ix]} from {@link SmallWorldParams#BEDROCK_Y} up.
+     */
+    double[] sampleLattice(ChunkPos pos, int carveTop) {
+        double[] out = lattice.get();
+
+        for (int iy = 0; iy < latticeLayers(carveTop); iy++) {
+            sampleLayer(out, pos, iy);
+        }
+
+        return out;
+    }
+
+    private void sampleLayer(double[] out, ChunkPos pos, int iy) {
+        int y = SmallWorldParams.BEDROCK_Y + iy * CELL_Y;
+        int startX = pos.getStartX();
+        int startZ = pos.getStartZ();
+
+        int i = iy * LATTICE_XZ * LATTICE_XZ;
+        for (int iz = 0; iz < LATTICE_XZ; iz++) {
+            for (int ix = 0; ix < LATTICE_XZ; ix++) {
+                out[i++] = density(startX + ix * CELL_XZ, y, startZ + iz * CELL_XZ);
+            }
+        }
+    }
+
+    static int latticeLayers(int carveTop) {
+        return Math.min(MAX_LATTICE_Y, Math.ceilDiv(carveTop - SmallWorldParams.BEDROCK_Y, CELL_Y) + 1);
+    }
+
+    public void carve(Chunk chunk, ColumnHeightCache.ChunkHeights heights) {
+        int carveTop = carveTop(heights);
+        if (carveTop < FLOOR_Y) return;
+
+        int layers = latticeLayers(carveTop);
+
+        if (ParallelSections.isEnabled()) {
+            // the buffer belongs to this thread, which works through both passes with the pool before returning
+            double[] lattice = this.lattice.get();
+            ChunkPos pos = chunk.getPos();
+
+            ParallelSections.invoke(layers, iy -> sampleLayer(lattice, pos, iy));
+            ParallelSections.invoke(chunk.countVerticalSections(), index -> carveSection(chunk, index, lattice, layers, heights, carveTop));
+            return;
+        }
+
+        double[] lattice = sampleLattice(chunk.getPos(), carveTop);
+        for (int index = 0; index < chunk.countVerticalSections(); index++) {
+            carveSection(chunk, index, lattice, layers, heights, carveTop);
+        }
+    }
+
+    /**
+     * Carves one section from an already sampled lattice. Sections touch disjoint blocks, so separate sections of
+     * the same chunk may be carved concurrently.
+     */
+    void carveSection(Chunk chunk, int index, double[] lattice, int layers, ColumnHeightCache.ChunkHeights heights, int carveTop) {
+        int bottomY = chunk.sectionIndexToCoord(index) << 4;
+        if (bottomY > carveTop || bottomY + 15 < FLOOR_Y) return;
+
+        // sections are 16 tall and the lattice starts at the bedrock floor, so each covers exactly two cell layers
+        int firstLayer = (bottomY - SmallWorldParams.BEDROCK_Y) / CELL_Y;
+        int lastLayer = Math.min(firstLayer + 16 / CELL_Y, layers - 1);
+        if (firstLayer >= lastLayer || latticeMin(lattice, firstLayer, lastLayer) >= 0.0) return;
+
+        ChunkSection section = chunk.getSectionArray()[index];
+        section.lock();
+        try {
+            for (int iy = firstLayer; iy < lastLayer; iy++) {
+                for (int cz = 0; cz < LATTICE_XZ - 1; cz++) {
+                    for (int cx = 0; cx < LATTICE_XZ - 1; cx++) {
+                        carveCell(section, lattice, iy, cx, cz, bottomY, heights);
+                    }
+                }
+            }
+        } finally {
+            section.unlock();
+        }
+    }
+
+    private static double latticeMin(double[] lattice, int firstLayer, int lastLayer) {
+        double min = Double.POSITIVE_INFINITY;
+
+        int from = firstLayer * LATTICE_XZ * LATTICE_XZ;
+        int to = (lastLayer + 1) * LATTICE_XZ * LATTICE_XZ;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, lattice[i]);
+        }
+
+        return min;
+    }
+
+    private static void carveCell(ChunkSection section, double[] lattice, int iy, int cx, int cz, int sectionBottomY, ColumnHeightCache.ChunkHeights heights) {
+        int i000 = (iy * LATTICE_XZ + cz) * LATTICE_XZ + cx;
+        int i001 = i000 + LATTICE_XZ;
+        int i100 = i000 + LATTICE_XZ * LATTICE_XZ;
+        int i101 = i100 + LATTICE_XZ;
+
+        double c000 = lattice[i000], c010 = lattice[i000 + 1], c001 = lattice[i001], c011 = lattice[i001 + 1];
+        double c100 = lattice[i100], c110 = lattice[i100 + 1], c101 = lattice[i101], c111 = lattice[i101 + 1];
+
+        double min = Math.min(Math.min(Math.min(c000, c010), Math.min(c001, c011)), Math.min(Math.min(c100, c110), Math.min(c101, c111)));
+        if (min >= 0.0) return;
+
+        int cellBottomY = SmallWorldParams.BEDROCK_Y + iy * CELL_Y;
+        int lyOffset = cellBottomY - sectionBottomY;
+
+        for (int dy = 0; dy < CELL_Y; dy++) {
+            int y = cellBottomY + dy;
+            if (y < FLOOR_Y) continue;
+
+            double fy = dy / (double) CELL_Y;
+
+            // interpolate the four vertical edges once per layer, then bilinearly across the layer
+            double e00 = MathHelper.lerp(fy, c000, c100);
+            double e10 = MathHelper.lerp(fy, c010, c110);
+            double e01 = MathHelper.lerp(fy, c001, c101);
+            double e11 = MathHelper.lerp(fy, c011, c111);
+
+            for (int dz = 0; dz < CELL_XZ; dz++) {
+                double fz = dz / (double) CELL_XZ;
+                double row0 = MathHelper.lerp(fz, e00, e01);
+                double row1 = MathHelper.lerp(fz, e10, e11);
+                int lz = cz * CELL_XZ + dz;
+
+                for (int dx = 0; dx < CELL_XZ; dx++) {
+                    double density = MathHelper.lerp(dx / (double) CELL_XZ, row0, row1);
+                    if (density >= 0.0) continue;
+
+                    int lx = cx * CELL_XZ + dx;
+                    if (y > heights.surfaceAt(lx, lz) - SURFACE_MARGIN) continue;
+
+                    int ly = lyOffset + dy;
+                    if (section.getBlockState(lx, ly, lz) == STONE) {
+                        section.setBlockState(lx, ly, lz, AIR, false);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package net.mango.worldgen.small_world;
+
+import net.mango.worldgen.biomes.TerracraftBiome;
+
+/**
+ * How much of the generator a chunk actually needs, decided once from its position and the layout.
+ * <p>
+ * {@link #DEEP_OCEAN} chunks see nothing but ocean anywhere in their blend footprint, so every column in them is the
+ * same and they can be written from shared templates. Chunks entirely past the world border always are.
+ */
+public enum ChunkKind {
+    MIXED,
+    DEEP_OCEAN;
+
+    private static final int HALF_CELL = SmallWorldParams.CELL_SIZE / 2;
+
+    public boolean isUniform() {
+        return this != MIXED;
+    }
+
+    public static ChunkKind classify(BiomeLayout layout, int chunkX, int chunkZ) {
+        int startX = chunkX << 4;
+        int startZ = chunkZ << 4;
+
+        // past the border every cell is ocean, no need to scan them
+        if (isOutsideBorder(startX) || isOutsideBorder(startZ)) {
+            return DEEP_OCEAN;
+        }
+
+        // a chunk never spans more than 3 cells per axis even with the blend radius added on both sides
+        int minCellX = (startX - BiomeBlender.BLEND_RADIUS + HALF_CELL) >> SmallWorldParams.CELL_SHIFT;
+        int maxCellX = (startX + 16 + BiomeBlender.BLEND_RADIUS + HALF_CELL) >> SmallWorldParams.CELL_SHIFT;
+        int minCellZ = (startZ - BiomeBlender.BLEND_RADIUS + HALF_CELL) >> SmallWorldParams.CELL_SHIFT;
+        int maxCellZ = (startZ + 16 + BiomeBlender.BLEND_RADIUS + HALF_CELL) >> SmallWorldParams.CELL_SHIFT;
+
+        for (int cz = minCellZ; cz <= maxCellZ; cz++) {
+            for (int cx = minCellX; cx <= maxCellX; cx++) {
+                if (layout.getCellBiome(cx, cz) != TerracraftBiome.OCEAN) return MIXED;
+            }
+        }
+
+        return DEEP_OCEAN;
+    }
+
+    private static boolean isOutsideBorder(int start) {
+        return start >= SmallWorldParams.RADIUS || start + 15 < -SmallWorldParams.RADIUS;
+    }
+}
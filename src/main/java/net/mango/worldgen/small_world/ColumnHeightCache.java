@@ -0,0 +1,150 @@
+package net.mango.worldgen.small_world;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe cache of per-chunk surface and terrain heights.
+ * <p>
+ * The table is set associative with {@link #WAYS} slots per set and clock eviction inside each set. Lookups are
+ * lock-free and allocation-free; only a miss takes the table lock to install the freshly loaded chunk.
+ */
+public final class ColumnHeightCache {
+    public static final int WAYS = 4;
+
+    private final Slot[] slots;
+    private final byte[] hands;
+    private final int setMask;
+    private final Loader loader;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @FunctionalInterface
+    public interface Loader {
+        ChunkHeights load(int chunkX, int chunkZ);
+    }
+
+    /**
+     * Heights of the 16x16 columns of one chunk, indexed by {@code (z & 15) << 4 | (x & 15)}.
+     */
+    public record ChunkHeights(short[] surface, short[] terrain) {
+        public static int index(int x, int z) {
+            return (z & 15) << 4 | (x & 15);
+        }
+
+        public int surfaceAt(int x, int z) {
+            return surface[index(x, z)];
+        }
+
+        public int terrainAt(int x, int z) {
+            return terrain[index(x, z)];
+        }
+    }
+
+    private static final class Slot {
+        final long key;
+        final ChunkHeights heights;
+        volatile boolean referenced = true;
+
+        Slot(long key, ChunkHeights heights) {
+            this.key = key;
+            this.heights = heights;
+        }
+    }
+
+    /**
+     * @param capacity number of chunks kept, rounded up to a power of two multiple of {@link #WAYS}
+     */
+    public ColumnHeightCache(int capacity, Loader loader) {
+        int sets = HashCommon.nextPowerOfTwo(Math.max(1, capacity / WAYS));
+
+        this.slots = new Slot[sets * WAYS];
+        this.hands = new byte[sets];
+        this.setMask = sets - 1;
+        this.loader = loader;
+    }
+
+    public ChunkHeights get(int chunkX, int chunkZ) {
+        long key = ChunkPos.toLong(chunkX, chunkZ);
+        int base = ((int) HashCommon.mix(key) & setMask) * WAYS;
+
+        for (int way = 0; way < WAYS; way++) {
+            Slot slot = slots[base + way];
+
+            if (slot != null && slot.key == key) {
+                if (!slot.referenced) slot.referenced = true;
+                hits.increment();
+                return slot.heights;
+            }
+        }
+
+        misses.increment();
+
+        // loading happens outside the lock, two threads racing on the same chunk just compute identical heights
+        ChunkHeights heights = loader.load(chunkX, chunkZ);
+        install(base, key, heights);
+
+        return heights;
+    }
+
+    public ChunkHeights get(ChunkPos pos) {
+        return get(pos.x, pos.z);
+    }
+
+    public int getSurfaceHeight(int x, int z) {
+        return get(x >> 4, z >> 4).surfaceAt(x, z);
+    }
+
+    private void install(int base, long key, ChunkHeights heights) {
+        int set = base / WAYS;
+
+        synchronized (slots) {
+            for (int way = 0; way < WAYS; way++) {
+                Slot slot = slots[base + way];
+
+                if (slot == null) {
+                    slots[base + way] = new Slot(key, heights);
+                    return;
+                }
+
+                if (slot.key == key) return;
+            }
+
+            // clock sweep, clearing reference bits until an unreferenced slot comes round
+            int hand = hands[set];
+            while (true) {
+                Slot slot = slots[base + hand];
+
+                if (!slot.referenced) {
+                    slots[base + hand] = new Slot(key, heights);
+                    hands[set] = (byte) ((hand + 1) % WAYS);
+                    evictions.increment();
+                    return;
+                }
+
+                slot.referenced = false;
+                hand = (hand + 1) % WAYS;
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,66 @@
+package net.mango.worldgen.small_world;
+
+import net.minecraft.util.collection.PackedIntegerArray;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.chunk.Chunk;
+
+/**
+ * Heightmaps of generated columns, straight from their cached heights instead of rescanning the blocks.
+ * <p>
+ * Every column is solid up to its surface layer, which is itself solid or, in oceans, water, and water from there up
+ * to the sea, so each heightmap type is either the top of the ground or the top of the water.
+ */
+final class ColumnHeightmaps {
+    private static final Heightmap.Type[] TYPES = Heightmap.Type.values();
+
+    private ColumnHeightmaps() {}
+
+    /**
+     * The value {@code type} holds above a column of {@code template} whose surface layer is at {@code surfaceY},
+     * one above its top matching block.
+     */
+    static int top(Heightmap.Type type, int surfaceY, ColumnTemplate template) {
+        return isFloor(type) ? floorTop(surfaceY, template) : Math.max(surfaceY, SmallWorldParams.SEA_LEVEL) + 1;
+    }
+
+    // a fluid surface layer does not count, the floor is the solid block below it
+    private static int floorTop(int surfaceY, ColumnTemplate template) {
+        return template.hasFluidSurface() ? surfaceY : surfaceY + 1;
+    }
+
+    // the floor types only count solid blocks, every other type also stops at water
+    private static boolean isFloor(Heightmap.Type type) {
+        return switch (type) {
+            case OCEAN_FLOOR, OCEAN_FLOOR_WG -> true;
+            case WORLD_SURFACE, WORLD_SURFACE_WG, MOTION_BLOCKING, MOTION_BLOCKING_NO_LEAVES -> false;
+        };
+    }
+
+    /**
+     * Writes every heightmap type of a freshly filled chunk. Caves are carved well below the surface and features
+     * keep the heightmaps up to date themselves, so these stay exact for the rest of generation.
+     */
+    static void write(Chunk chunk, ColumnHeightCache.ChunkHeights heights, BiomeLayout layout) {
+        int bits = MathHelper.ceilLog2(chunk.getHeight() + 1);
+        int bottomY = chunk.getBottomY();
+        int startX = chunk.getPos().getStartX();
+        int startZ = chunk.getPos().getStartZ();
+
+        // heightmaps store x + z * 16, the same order as the cached heights
+        PackedIntegerArray floor = new PackedIntegerArray(bits, 256);
+        PackedIntegerArray surface = new PackedIntegerArray(bits, 256);
+        for (int i = 0; i < 256; i++) {
+            int surfaceY = heights.surface()[i];
+            ColumnTemplate template = ColumnTemplate.of(layout.getBiomeAt(startX + (i & 15), startZ + (i >> 4)));
+
+            floor.set(i, floorTop(surfaceY, template) - bottomY);
+            surface.set(i, Math.max(surfaceY, SmallWorldParams.SEA_LEVEL) + 1 - bottomY);
+        }
+
+        // setTo copies the data, so both arrays can back several types
+        for (Heightmap.Type type : TYPES) {
+            chunk.setHeightmap(type, isFloor(type) ? floor.getData() : surface.getData());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package net.mango.worldgen.small_world;
+
+import net.mango.worldgen.biomes.TerracraftBiome;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The block column a biome generates, resolved once per biome.
+ * <p>
+ * A column is the run bedrock / stone / terrain / surface / water / air, fully described by its surface height and
+ * terrain depth. Expanded columns are built lazily, shared between every caller with the same height and depth and
+ * must never be written to.
+ */
+public final class ColumnTemplate {
+    public static final int MAX_DEPTH = 16;
+
+    private static final BlockState BEDROCK = Blocks.BEDROCK.getDefaultState();
+    private static final BlockState STONE = Blocks.STONE.getDefaultState();
+    private static final BlockState WATER = Blocks.WATER.getDefaultState();
+    private static final BlockState AIR = Blocks.AIR.getDefaultState();
+
+    private static final ColumnTemplate[] TEMPLATES = new ColumnTemplate[TerracraftBiome.values().length];
+
+    static {
+        for (TerracraftBiome biome : TerracraftBiome.values()) {
+            TEMPLATES[biome.ordinal()] = new ColumnTemplate(biome);
+        }
+    }
+
+    private final BlockState surface;
+    private final BlockState terrain;
+    private final boolean fluidSurface;
+    private final AtomicReferenceArray<BlockState[]> columns = new AtomicReferenceArray<>(SmallWorldParams.WORLD_HEIGHT * (MAX_DEPTH + 1));
+
+    private ColumnTemplate(TerracraftBiome biome) {
+        this.surface = biome.surfaceBlock().getDefaultState();
+        this.terrain = biome.terrainBlock().getDefaultState();
+        this.fluidSurface = !surface.getFluidState().isEmpty();
+    }
+
+    public static ColumnTemplate of(TerracraftBiome biome) {
+        return TEMPLATES[biome.ordinal()];
+    }
+
+    public BlockState surface() {
+        return surface;
+    }
+
+    public BlockState terrain() {
+        return terrain;
+    }
+
+    /**
+     * Whether the surface layer is a fluid, as for oceans, which puts the highest solid block one below the surface.
+     */
+    public boolean hasFluidSurface() {
+        return fluidSurface;
+    }
+
+    public BlockState stateAt(int y, int topY, int depth) {
+        if (y == SmallWorldParams.BEDROCK_Y) return BEDROCK;
+        if (y < topY - depth) return STONE;
+        if (y < topY) return terrain;
+        if (y == topY) return surface;
+        if (y <= SmallWorldParams.SEA_LEVEL) return WATER;
+        return AIR;
+    }
+
+    /**
+     * The expanded column starting at {@link SmallWorldParams#BEDROCK_Y}, shared and read-only.
+     */
+    public BlockState[] column(int topY, int depth) {
+        topY = MathHelper.clamp(topY, SmallWorldParams.BEDROCK_Y, SmallWorldParams.BEDROCK_Y + SmallWorldParams.WORLD_HEIGHT - 1);
+        depth = MathHelper.clamp(depth, 0, MAX_DEPTH);
+
+        int key = (topY - SmallWorldParams.BEDROCK_Y) * (MAX_DEPTH + 1) + depth;
+
+        BlockState[] column = columns.get(key);
+        if (column != null) return column;
+
+        column = new BlockState[SmallWorldParams.WORLD_HEIGHT];
+        for (int i = 0; i < column.length; i++) {
+            column[i] = stateAt(SmallWorldParams.BEDROCK_Y + i, topY, depth);
+        }
+
+        // a racing thread may have built an identical column first, keep whichever won so the array stays shared
+        return columns.compareAndSet(key, null, column) ? column : columns.get(key);
+    }
+}
@@ -0,0 +1,198 @@
+package net.mango.worldgen.small_world;
+
+import net.mango.TerraCraft;
+import net.mango.worldgen.biomes.TerracraftBiome;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.util.math.random.RandomSplitter;
+
+import java.util.function.Function;
+
+/**
+ * Grows the snow, desert and jungle regions of the small world layout from the world's biome random.
+ * <p>
+ * Depends on nothing but the random derivers, so tools can produce the exact layout of any seed without a server.
+ * Cells are packed ints and regions are bitsets over the biome grid, so growing a layout allocates a handful of
+ * small arrays and nothing per step, which keeps {@link SeedSurvey} fast.
+ */
+public final class LayoutGenerator {
+    static final Identifier BIOME_DERIVER_ID = Identifier.of(TerraCraft.MOD_ID, "biome_supercell");
+
+    private static final int beachCellDistance = SmallWorldParams.BEACH_CELL_DISTANCE;
+    private static final int plainsRad = SmallWorldParams.PLAINS_CELL_RAD;
+
+    // regions only ever hold cells inside the beach ring, apart from a seed cell which is tracked separately
+    private static final int GRID_SIZE = beachCellDistance * 2 + 1;
+    private static final int GRID_WORDS = (GRID_SIZE * GRID_SIZE + Long.SIZE - 1) / Long.SIZE;
+
+    private static final int SNOW_SIZE = 13;
+    private static final int DESERT_SIZE = 10;
+    private static final int JUNGLE_SIZE = 14;
+    private static final int JUNGLE_OFFSET = 2;
+
+    private LayoutGenerator() {}
+
+    private static int pack(int x, int z) {
+        return x << 16 | (z & 0xFFFF);
+    }
+
+    private static int unpackX(int cell) {
+        return cell >> 16;
+    }
+
+    private static int unpackZ(int cell) {
+        return (short) cell;
+    }
+
+    // bit of the cell in a region bitset, or -1 outside the grid
+    private static int bit(int x, int z) {
+        int gx = x + beachCellDistance;
+        int gz = z + beachCellDistance;
+
+        if (Integer.compareUnsigned(gx, GRID_SIZE) >= 0 || Integer.compareUnsigned(gz, GRID_SIZE) >= 0) return -1;
+        return gz * GRID_SIZE + gx;
+    }
+
+    private static boolean contains(long[] region, int bit) {
+        return bit >= 0 && (region[bit >>> 6] & 1L << bit) != 0;
+    }
+
+    private static void add(long[] region, int bit) {
+        if (bit >= 0) region[bit >>> 6] |= 1L << bit;
+    }
+
+    private static int randomCellPos(Random random) {
+        while (true) {
+            int x = random.nextInt(beachCellDistance * 2 + 1) - beachCellDistance;
+            int z = random.nextInt(beachCellDistance * 2 + 1) - beachCellDistance;
+
+            int dist = Math.max(Math.abs(x), Math.abs(z));
+            if (dist > plainsRad && dist <= beachCellDistance) {
+                return pack(x, z);
+            }
+        }
+    }
+
+    private static boolean isNotValidBiomeCell(int x, int z) {
+        int dist = Math.max(Math.abs(x), Math.abs(z));
+
+        if (dist <= plainsRad) return true;
+        return dist > beachCellDistance;
+    }
+
+    private static void fisherYatesShuffle(int x, int z, int[] neighbors, Random random) {
+        // starts from the right and goes clockwise
+        neighbors[0] = pack(x + 1, z);
+        neighbors[1] = pack(x + 1, z - 1);
+        neighbors[2] = pack(x, z - 1);
+        neighbors[3] = pack(x - 1, z - 1);
+        neighbors[4] = pack(x - 1, z);
+        neighbors[5] = pack(x - 1, z + 1);
+        neighbors[6] = pack(x, z + 1);
+        neighbors[7] = pack(x + 1, z + 1);
+
+        // fisher-yates shuffle
+        for (int i = neighbors.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = neighbors[i];
+            neighbors[i] = neighbors[j];
+            neighbors[j] = t;
+        }
+    }
+
+    private static long[] growRegionAvoiding(int pos, int targetSize, long[] forbidden, int[] neighbors, Random random) {
+        long[] region = new long[GRID_WORDS];
+        // every cell enters the frontier once, so it never holds more than the target
+        int[] frontier = new int[targetSize];
+        int head = 0;
+        int tail = 0;
+
+        // the seed may lie outside the grid, it still counts towards the size and grows like any other cell
+        add(region, bit(unpackX(pos), unpackZ(pos)));
+        frontier[tail++] = pos;
+        int size = 1;
+
+        while (head < tail && size < targetSize) {
+            int current = frontier[head++];
+            fisherYatesShuffle(unpackX(current), unpackZ(current), neighbors, random);
+
+            for (int n : neighbors) {
+                if (size >= targetSize) break;
+
+                int x = unpackX(n);
+                int z = unpackZ(n);
+                // invalid cells are rejected whatever the sets hold, so cells off the grid need no bits
+                if (isNotValidBiomeCell(x, z)) continue;
+
+                int bit = bit(x, z);
+                if (contains(region, bit)) continue;
+                if (contains(forbidden, bit)) continue;
+
+                add(region, bit);
+                frontier[tail++] = n;
+                size++;
+            }
+        }
+
+        return region;
+    }
+
+    /**
+     * The layout of the world whose random derivers are {@code derivers}, see {@link NoiseRegistry#derivers(long)}.
+     */
+    public static BiomeLayout generate(Function<Identifier, RandomSplitter> derivers) {
+        Random random = derivers.apply(BIOME_DERIVER_ID).split("biome_supercell");
+        TerraCraft.LOGGER.debug("random number = {}", random.nextInt());
+
+        return generate(random);
+    }
+
+    private static BiomeLayout generate(Random random) {
+        int[] neighbors = new int[8];
+
+        int snowPos = randomCellPos(random);
+        int desertPos = pack(-unpackX(snowPos), -unpackZ(snowPos));
+
+        // nothing is occupied yet, so the jungle always starts straight right of the desert
+        int junglePos = pack(unpackX(desertPos) + JUNGLE_OFFSET, unpackZ(desertPos));
+
+        long[] forbidden = new long[GRID_WORDS];
+        long[] snowCells = growRegionAvoiding(snowPos, SNOW_SIZE, forbidden, neighbors, random);
+        long[] desertCells = growRegionAvoiding(desertPos, DESERT_SIZE, forbidden, neighbors, random);
+
+        for (int i = 0; i < GRID_WORDS; i++) {
+            forbidden[i] = snowCells[i] | desertCells[i];
+        }
+
+        long[] jungleCells = growRegionAvoiding(junglePos, JUNGLE_SIZE, forbidden, neighbors, random);
+
+        return BiomeLayout.bake((cellX, cellZ) -> classifyCell(cellX, cellZ, snowCells, desertCells, jungleCells));
+    }
+
+    private static TerracraftBiome classifyCell(int cellX, int cellZ, long[] snowCells, long[] desertCells, long[] jungleCells) {
+        int cellDistance = Math.max(Math.abs(cellX), Math.abs(cellZ));
+
+        if (cellDistance <= plainsRad) {
+            return TerracraftBiome.PLAINS;
+        }
+
+        if (cellDistance > beachCellDistance) {
+            return (cellDistance > beachCellDistance + 1) ? TerracraftBiome.OCEAN : TerracraftBiome.BEACH;
+        }
+
+        int bit = bit(cellX, cellZ);
+        if (contains(snowCells, bit)) {
+            return TerracraftBiome.SNOW;
+        }
+
+        if (contains(desertCells, bit)) {
+            return TerracraftBiome.DESERT;
+        }
+
+        if (contains(jungleCells, bit)) {
+            return TerracraftBiome.JUNGLE;
+        }
+
+        return TerracraftBiome.PLAINS;
+    }
+}
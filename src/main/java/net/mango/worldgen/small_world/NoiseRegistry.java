@@ -0,0 +1,98 @@
+package net.mango.worldgen.small_world;
+
+import net.mango.TerraCraft;
+import net.mango.worldgen.biomes.TerracraftBiome;
+import net.mango.worldgen.noise.SimplexTerracraftNoise;
+import net.mango.worldgen.noise.TerracraftNoise;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.noise.SimplexNoiseSampler;
+import net.minecraft.util.math.random.RandomSplitter;
+import net.minecraft.util.math.random.Xoroshiro128PlusPlusRandom;
+import net.minecraft.world.gen.noise.NoiseConfig;
+
+import java.util.function.Function;
+
+/**
+ * Every noise the small world samples, derived from the world's random derivers once and compiled.
+ * <p>
+ * Each noise gets its own named split of a fixed deriver, so the same seed always yields the same noises no
+ * matter which are built first, and nothing here is created again once generation is running.
+ */
+public final class NoiseRegistry {
+    static final Identifier TEMP_DERIVER_ID = Identifier.of(TerraCraft.MOD_ID, "temp_deriver");
+    static final Identifier HUMID_DERIVER_ID = Identifier.of(TerraCraft.MOD_ID, "humid_deriver");
+    static final Identifier HEIGHT_DERIVER_ID = Identifier.of(TerraCraft.MOD_ID, "height_deriver");
+    static final Identifier CAVE_DERIVER_ID = Identifier.of(TerraCraft.MOD_ID, "cave_deriver");
+
+    private static final TerracraftBiome[] BIOMES = TerracraftBiome.values();
+
+    private final TerracraftNoise temperature;
+    private final TerracraftNoise humidity;
+    private final TerracraftNoise[] surfaceMaps = new TerracraftNoise[BIOMES.length];
+    private final TerracraftNoise[] terrainMaps = new TerracraftNoise[BIOMES.length];
+    private final CaveNoise caves;
+
+    /**
+     * The 3D samplers behind {@link CaveCarver}: two tunnel fields whose shared zero crossings form the tunnels,
+     * and one cavern field.
+     */
+    public record CaveNoise(SimplexNoiseSampler tunnelA, SimplexNoiseSampler tunnelB, SimplexNoiseSampler cavern) {}
+
+    private NoiseRegistry(Function<Identifier, RandomSplitter> derivers) {
+        temperature = new SimplexTerracraftNoise(derivers.apply(TEMP_DERIVER_ID).split("temperature")).octavate(4, 2.0, 0.5).frequency(1.0 / 256.0).compile();
+        humidity = new SimplexTerracraftNoise(derivers.apply(HUMID_DERIVER_ID).split("humidity")).octavate(4, 2.0, 0.5).frequency(1.0 / 256.0).compile();
+
+        RandomSplitter heightDeriver = derivers.apply(HEIGHT_DERIVER_ID);
+        for (TerracraftBiome biome : BIOMES) {
+            surfaceMaps[biome.ordinal()] = biome.surfaceHeightMap(heightDeriver.split(biome.name() + "/surface")).compile();
+            terrainMaps[biome.ordinal()] = biome.terrainHeightMap(heightDeriver.split(biome.name() + "/terrain")).compile();
+        }
+
+        RandomSplitter caveDeriver = derivers.apply(CAVE_DERIVER_ID);
+        caves = new CaveNoise(
+                new SimplexNoiseSampler(caveDeriver.split("tunnel_a")),
+                new SimplexNoiseSampler(caveDeriver.split("tunnel_b")),
+                new SimplexNoiseSampler(caveDeriver.split("cavern"))
+        );
+    }
+
+    public static NoiseRegistry create(NoiseConfig noiseConfig) {
+        return create(noiseConfig::getOrCreateRandomDeriver);
+    }
+
+    /**
+     * Builds the noises from any source of derivers, so tools can reproduce a world's noises without a server.
+     */
+    public static NoiseRegistry create(Function<Identifier, RandomSplitter> derivers) {
+        return new NoiseRegistry(derivers);
+    }
+
+    /**
+     * The random derivers a server builds for {@code seed}. Custom generators get the missing chunk generator settings,
+     * which never use the legacy random source, so this matches {@link NoiseConfig#getOrCreateRandomDeriver}.
+     */
+    public static Function<Identifier, RandomSplitter> derivers(long seed) {
+        RandomSplitter root = new Xoroshiro128PlusPlusRandom(seed).nextSplitter();
+        return id -> root.split(id).nextSplitter();
+    }
+
+    public TerracraftNoise temperature() {
+        return temperature;
+    }
+
+    public TerracraftNoise humidity() {
+        return humidity;
+    }
+
+    public TerracraftNoise surfaceMap(TerracraftBiome biome) {
+        return surfaceMaps[biome.ordinal()];
+    }
+
+    public TerracraftNoise terrainMap(TerracraftBiome biome) {
+        return terrainMaps[biome.ordinal()];
+    }
+
+    public CaveNoise caves() {
+        return caves;
+    }
+}
@@ -0,0 +1,117 @@
+package net.mango.worldgen.small_world;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Opt-in splitting of one chunk's per-section work across a small fork/join pool owned by the generator.
+ * <p>
+ * Off by default, since with many chunks in flight the worldgen executor already keeps every core busy. It pays
+ * off when few chunks are queued, a pregen burst or players joining at once, by putting idle cores to work on the
+ * sections of the chunks that are. Enable with {@code -Dterracraft.parallelSections=true} or at runtime with
+ * {@code /terracraft perf parallel true}, and compare the noise and carve timings between the two modes. Offline,
+ * {@code ./gradlew jmh -Pjmh.includes=SmallWorldBenchmark.chunkPass} times a chunk pass in both modes.
+ */
+public final class ParallelSections {
+    private static final int PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+    private static volatile boolean enabled = Boolean.getBoolean("terracraft.parallelSections");
+
+    private ParallelSections() {}
+
+    // created on first use so servers that never enable it never start the threads
+    private static final class Holder {
+        static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("terracraft-sections-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ParallelSections.enabled = enabled;
+    }
+
+    public static int getParallelism() {
+        return PARALLELISM;
+    }
+
+    /**
+     * Runs {@code action} for every index below {@code count} and returns once all of them have.
+     * <p>
+     * The calling worldgen worker claims indices alongside the pool instead of parking until the pool is done, so
+     * it only ever waits for the last few indices still in progress and never sits on a whole chunk's worth.
+     */
+    static void invoke(int count, IntConsumer action) {
+        AtomicInteger next = new AtomicInteger();
+        Runnable drain = () -> {
+            for (int index; (index = next.getAndIncrement()) < count; ) {
+                action.accept(index);
+            }
+        };
+
+        ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[Math.clamp(count - 1, 0, PARALLELISM)];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = Holder.POOL.submit(drain);
+        }
+
+        drain.run();
+
+        for (ForkJoinTask<?> helper : helpers) {
+            helper.join();
+        }
+    }
+
+    /**
+     * Runs {@code action} for every index below {@code count} on the pool, completing the future once all have.
+     */
+    static CompletableFuture<Void> submit(int count, IntConsumer action) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Holder.POOL.execute(() -> {
+            try {
+                new Range(0, count, action).invoke();
+                done.complete(null);
+            } catch (Throwable t) {
+                done.completeExceptionally(t);
+            }
+        });
+
+        return done;
+    }
+
+    private static final class Range extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        Range(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+                return;
+            }
+
+            if (to <= from) return;
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new Range(from, mid, action), new Range(mid, to, action));
+        }
+    }
+}
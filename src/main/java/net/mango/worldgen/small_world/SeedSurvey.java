@@ -0,0 +1,119 @@
+package net.mango.worldgen.small_world;
+
+import net.mango.worldgen.biomes.TerracraftBiome;
+
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+/**
+ * Grows the biome layouts of a range of seeds in parallel and reports the seeds whose layout matches a predicate.
+ * <p>
+ * Conditions are given as {@code jungle~desert} (some jungle cell shares an edge with a desert cell),
+ * {@code snow>=12} or {@code snow<=8} (cell counts), and all of them must hold. Run it with
+ * {@code ./gradlew surveySeeds -Pfrom=<seed> -Pcount=<n> -Pwhere=<condition>[,<condition>...]}.
+ */
+public final class SeedSurvey {
+    private static final int GRID_RAD = BiomeLayout.GRID_RAD;
+    private static final int PRINT_LIMIT = 1000;
+
+    private SeedSurvey() {}
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("usage: SeedSurvey <first seed> <seed count> <condition>[,<condition>...]");
+            System.exit(1);
+        }
+
+        long from = Long.parseLong(args[0]);
+        long count = Long.parseLong(args[1]);
+        Predicate<BiomeLayout> predicate = parse(args[2]);
+
+        long start = System.nanoTime();
+        long[] matches = survey(from, count, predicate);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        for (int i = 0; i < Math.min(matches.length, PRINT_LIMIT); i++) {
+            System.out.println(matches[i]);
+        }
+        if (matches.length > PRINT_LIMIT) {
+            System.out.printf("... and %d more%n", matches.length - PRINT_LIMIT);
+        }
+
+        System.out.printf("%d of %d seeds matched in %d ms (%.0f seeds/s)%n", matches.length, count, millis, count * 1000.0 / Math.max(1, millis));
+    }
+
+    /**
+     * Every seed in {@code [from, from + count)} whose layout matches, in ascending order.
+     */
+    public static long[] survey(long from, long count, Predicate<BiomeLayout> predicate) {
+        return LongStream.range(from, from + count)
+                .parallel()
+                .filter(seed -> predicate.test(LayoutGenerator.generate(NoiseRegistry.derivers(seed))))
+                .toArray();
+    }
+
+    public static int countCells(BiomeLayout layout, TerracraftBiome biome) {
+        int count = 0;
+
+        for (int cz = -GRID_RAD; cz <= GRID_RAD; cz++) {
+            for (int cx = -GRID_RAD; cx <= GRID_RAD; cx++) {
+                if (layout.getCellBiome(cx, cz) == biome) count++;
+            }
+        }
+
+        return count;
+    }
+
+    public static boolean isAdjacent(BiomeLayout layout, TerracraftBiome a, TerracraftBiome b) {
+        for (int cz = -GRID_RAD; cz <= GRID_RAD; cz++) {
+            for (int cx = -GRID_RAD; cx <= GRID_RAD; cx++) {
+                if (layout.getCellBiome(cx, cz) != a) continue;
+
+                if (layout.getCellBiome(cx + 1, cz) == b || layout.getCellBiome(cx - 1, cz) == b
+                        || layout.getCellBiome(cx, cz + 1) == b || layout.getCellBiome(cx, cz - 1) == b) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    static Predicate<BiomeLayout> parse(String conditions) {
+        Predicate<BiomeLayout> predicate = layout -> true;
+
+        for (String condition : conditions.split(",")) {
+            predicate = predicate.and(parseCondition(condition.trim()));
+        }
+
+        return predicate;
+    }
+
+    private static Predicate<BiomeLayout> parseCondition(String condition) {
+        int split;
+        if ((split = condition.indexOf('~')) > 0) {
+            TerracraftBiome a = biome(condition.substring(0, split));
+            TerracraftBiome b = biome(condition.substring(split + 1));
+            return layout -> isAdjacent(layout, a, b);
+        }
+
+        if ((split = condition.indexOf(">=")) > 0) {
+            TerracraftBiome biome = biome(condition.substring(0, split));
+            int min = Integer.parseInt(condition.substring(split + 2));
+            return layout -> countCells(layout, biome) >= min;
+        }
+
+        if ((split = condition.indexOf("<=")) > 0) {
+            TerracraftBiome biome = biome(condition.substring(0, split));
+            int max = Integer.parseInt(condition.substring(split + 2));
+            return layout -> countCells(layout, biome) <= max;
+        }
+
+        throw new IllegalArgumentException("Unknown condition '" + condition + "', expected a~b, a>=n or a<=n");
+    }
+
+    private static TerracraftBiome biome(String name) {
+        return TerracraftBiome.valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -8,16 +8,12 @@ import com.mojang.serialization.RecordBuilder;
 import net.mango.TerraCraft;
 import net.mango.worldgen.biomes.TerracraftBiome;
 import net.mango.worldgen.biomes.TerracraftBiomeBlendParams;
-import net.mango.worldgen.noise.SimplexTerracraftNoise;
-import net.mango.worldgen.noise.TerracraftNoise;
-import net.minecraft.block.BlockState;
-import net.minecraft.block.Blocks;
+import net.mango.worldgen.stats.WorldgenTimings;
 import net.minecraft.registry.*;
 import net.minecraft.registry.entry.RegistryEntry;
-import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
-import net.minecraft.util.math.random.Random;
 import net.minecraft.world.*;
 import net.minecraft.world.biome.Biome;
 import net.minecraft.world.biome.BiomeKeys;
@@ -25,45 +21,38 @@ import net.minecraft.world.biome.source.BiomeAccess;
 import net.minecraft.world.biome.source.FixedBiomeSource;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
 import net.minecraft.world.gen.StructureAccessor;
 import net.minecraft.world.gen.chunk.ChunkGenerator;
 import net.minecraft.world.gen.chunk.VerticalBlockSample;
 import net.minecraft.world.gen.feature.PlacedFeature;
-import net.minecraft.world.gen.feature.TreePlacedFeatures;
 import net.minecraft.world.gen.noise.NoiseConfig;
 import net.minecraft.world.gen.chunk.Blender;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 public class SmallWorldChunkGenerator extends ChunkGenerator {
-    private static final Identifier TEMP_DERIVER_ID = Identifier.of(TerraCraft.MOD_ID, "temp_deriver");
-    private static final Identifier HUMID_DERIVER_ID = Identifier.of(TerraCraft.MOD_ID, "humid_deriver");
-    private static final Identifier COAST_DERIVER_ID = Identifier.of(TerraCraft.MOD_ID, "coast_deriver");
+    private static final int HEIGHT_CACHE_CAPACITY = 1024;
 
-    private final Map<TerracraftBiome, RegistryEntry<Biome>> biomes;
+    private static final String LAYOUT_KEY = "layout";
 
-    private volatile TerracraftNoise tempMap;
-    private volatile TerracraftNoise humidMap;
-    private volatile TerracraftNoise coastline;
+    private static final ColumnHeightCache.ChunkHeights DEEP_OCEAN_HEIGHTS = uniformHeights(SmallWorldParams.DEEP_OCEAN_FLOOR, SmallWorldParams.DEEP_OCEAN_DEPTH);
 
-    private volatile boolean initFinished = false;
+    private final Map<TerracraftBiome, RegistryEntry<Biome>> biomes;
 
-    private volatile Random random;
+    private volatile WorldState state;
 
-    private Set<Vector2i> snowCells = new HashSet<>();
-    private Set<Vector2i> desertCells = new HashSet<>();
-    private Set<Vector2i> jungleCells = new HashSet<>();
+    // the layout loaded from the save, used instead of generating one
+    private final BiomeLayout presetLayout;
 
-    private final int beachCellDistance = 5;
-    private final int plainsRad = 2;
+    private final SmallWorldDecorator decorator;
 
-    private final Map<TerracraftBiome, TerracraftNoise> surfaceHeightMaps = new ConcurrentHashMap<>();
-    private final Map<TerracraftBiome, TerracraftNoise> terrainHeightMaps = new ConcurrentHashMap<>();
+    // biome entries belong to this generator's registry, so the template lives here rather than in a static
+    private volatile PalettedContainer<RegistryEntry<Biome>> deepOceanBiomes;
 
-    private static final List<TerracraftBiomeBlendParams> BIOME_BLEND_PARAMS = List.of(
+    static final List<TerracraftBiomeBlendParams> BIOME_BLEND_PARAMS = List.of(
             new TerracraftBiomeBlendParams(TerracraftBiome.PLAINS, 0.0, 0.2),
             new TerracraftBiomeBlendParams(TerracraftBiome.DESERT, 1.0, -0.5),
             new TerracraftBiomeBlendParams(TerracraftBiome.SNOW, -1.0, 0.3),
@@ -80,220 +69,185 @@ public class SmallWorldChunkGenerator extends ChunkGenerator {
             }
 
             Optional<RegistryEntryLookup<Biome>> biomeLookup = registryOps.getEntryLookup(RegistryKeys.BIOME);
-            RegistryEntry<Biome> plains = biomeLookup.orElseThrow().getOrThrow(BiomeKeys.PLAINS);
-
-            return DataResult.success(new SmallWorldChunkGenerator(plains, Map.of(
-                    TerracraftBiome.PLAINS, plains,
-                    TerracraftBiome.SNOW, biomeLookup.orElseThrow().getOrThrow(BiomeKeys.SNOWY_PLAINS),
-                    TerracraftBiome.DESERT, biomeLookup.orElseThrow().getOrThrow(BiomeKeys.DESERT),
-                    TerracraftBiome.BEACH, biomeLookup.orElseThrow().getOrThrow(BiomeKeys.BEACH),
-                    TerracraftBiome.OCEAN, biomeLookup.orElseThrow().getOrThrow(BiomeKeys.OCEAN),
-                    TerracraftBiome.JUNGLE, biomeLookup.orElseThrow().getOrThrow(BiomeKeys.JUNGLE)
-            )));
+
+            // worlds saved before the layout was persisted, and fresh presets, generate it on first use instead
+            BiomeLayout layout = null;
+            T saved = input.get(LAYOUT_KEY);
+            if (saved != null) {
+                layout = BiomeLayout.CODEC.parse(ops, saved)
+                        .resultOrPartial(error -> TerraCraft.LOGGER.warn("Discarding saved small world layout: {}", error))
+                        .orElse(null);
+            }
+
+            RegistryEntryLookup<PlacedFeature> featureLookup = registryOps.getEntryLookup(RegistryKeys.PLACED_FEATURE).orElseThrow();
+            return DataResult.success(create(biomeLookup.orElseThrow(), featureLookup, layout));
         }
 
         @Override
         public <T> RecordBuilder<T> encode(SmallWorldChunkGenerator value, DynamicOps<T> ops, RecordBuilder<T> builder) {
+            BiomeLayout layout = value.getLayout();
+            if (layout != null) {
+                builder.add(LAYOUT_KEY, BiomeLayout.CODEC.encodeStart(ops, layout));
+            }
+
             return builder;
         }
 
         @Override
         public <T> Stream<T> keys(DynamicOps<T> ops) {
-            return Stream.empty();
+            return Stream.of(ops.createString(LAYOUT_KEY));
         }
     };
 
-    private SmallWorldChunkGenerator(RegistryEntry<Biome> plains, Map<TerracraftBiome, RegistryEntry<Biome>> biomes) {
+    private SmallWorldChunkGenerator(RegistryEntry<Biome> plains, Map<TerracraftBiome, RegistryEntry<Biome>> biomes, SmallWorldDecorator decorator, BiomeLayout presetLayout) {
         super(new FixedBiomeSource(plains));
         this.biomes = biomes;
+        this.decorator = decorator;
+        this.presetLayout = presetLayout;
     }
 
-    private record Vector2i(int x, int y) {
-        public boolean equals(Object obj) {
-            return this == obj || (obj instanceof Vector2i(int x1, int y1) && x == x1 && y == y1);
-        }
-
-        public Vector2i add(Vector2i other) {
-            return new Vector2i(x + other.x, y + other.y);
-        }
+    static SmallWorldChunkGenerator create(RegistryEntryLookup<Biome> biomeLookup, RegistryEntryLookup<PlacedFeature> featureLookup) {
+        return create(biomeLookup, featureLookup, null);
     }
 
-    private Vector2i randomCellPos(Random random) {
-        while (true) {
-            int x = random.nextInt(beachCellDistance * 2 + 1) - beachCellDistance;
-            int z = random.nextInt(beachCellDistance * 2 + 1) - beachCellDistance;
-
-            int dist = Math.max(Math.abs(x), Math.abs(z));
-            if (dist > plainsRad && dist <= beachCellDistance) {
-                return new Vector2i(x, z);
-            }
-        }
+    static SmallWorldChunkGenerator create(RegistryEntryLookup<Biome> biomeLookup, RegistryEntryLookup<PlacedFeature> featureLookup, BiomeLayout presetLayout) {
+        RegistryEntry<Biome> plains = biomeLookup.getOrThrow(BiomeKeys.PLAINS);
+
+        return new SmallWorldChunkGenerator(plains, Map.of(
+                TerracraftBiome.PLAINS, plains,
+                TerracraftBiome.SNOW, biomeLookup.getOrThrow(BiomeKeys.SNOWY_PLAINS),
+                TerracraftBiome.DESERT, biomeLookup.getOrThrow(BiomeKeys.DESERT),
+                TerracraftBiome.BEACH, biomeLookup.getOrThrow(BiomeKeys.BEACH),
+                TerracraftBiome.OCEAN, biomeLookup.getOrThrow(BiomeKeys.OCEAN),
+                TerracraftBiome.JUNGLE, biomeLookup.getOrThrow(BiomeKeys.JUNGLE)
+        ), SmallWorldDecorator.resolve(featureLookup), presetLayout);
     }
 
-    private boolean isNotValidBiomeCell(Vector2i cell) {
-        int dist = Math.max(Math.abs(cell.x), Math.abs(cell.y));
+    /**
+     * Everything derived from a {@link NoiseConfig}, published as one immutable snapshot so worker threads never see
+     * a layout from a different seed or one that is still being built.
+     */
+    private record WorldState(NoiseConfig noiseConfig, NoiseRegistry noises, BiomeLayout layout, BiomeBlender blender, ColumnHeightCache heights, CaveCarver caves) {}
 
-        if (dist <= plainsRad) return true;
-        return dist > beachCellDistance;
+    BiomeLayout generateInitialBiomes(NoiseConfig noiseConfig) {
+        return LayoutGenerator.generate(noiseConfig::getOrCreateRandomDeriver);
     }
 
-    private boolean isOccupied(Vector2i cell) {
-        return snowCells.contains(cell) || desertCells.contains(cell) || jungleCells.contains(cell);
-    }
-
-    private Vector2i[] fisherYatesShuffle(Vector2i pos) {
-        // starts from the right and goes clockwise
-        Vector2i[] neighbors = {
-                new Vector2i(pos.x + 1, pos.y),
-                new Vector2i(pos.x + 1, pos.y - 1),
-                new Vector2i(pos.x, pos.y - 1),
-                new Vector2i(pos.x - 1, pos.y - 1),
-                new Vector2i(pos.x - 1, pos.y),
-                new Vector2i(pos.x - 1, pos.y + 1),
-                new Vector2i(pos.x, pos.y + 1),
-                new Vector2i(pos.x + 1, pos.y + 1),
-        };
-
-        // fisher-yates shuffle
-        for (int i = neighbors.length - 1; i > 0; i--) {
-            int j = random.nextInt(i + 1);
-            Vector2i t = neighbors[i];
-            neighbors[i] = neighbors[j];
-            neighbors[j] = t;
-        }
+    private WorldState initialize(NoiseConfig noiseConfig) {
+        WorldState current = state;
+        if (current != null && current.noiseConfig() == noiseConfig) return current;
 
-        return neighbors;
-    }
-
-    private Vector2i findSpotNearPos(Vector2i pos, int rad) {
-        Vector2i[] neighbors = {
-                new Vector2i(pos.x + rad, pos.y),
-                new Vector2i(pos.x, pos.y - rad),
-                new Vector2i(pos.x - rad, pos.y),
-                new Vector2i(pos.x, pos.y + rad),
-        };
+        // build at most once per noise config, readers only ever take the lock-free path above
+        synchronized (this) {
+            current = state;
+            if (current == null || current.noiseConfig() != noiseConfig) {
+                current = createState(noiseConfig);
+                state = current;
+            }
 
-        for (Vector2i neighbor : neighbors) {
-            if (!isOccupied(neighbor)) return neighbor;
+            return current;
         }
-
-        return new Vector2i(0, 0);
     }
 
-    private Set<Vector2i> growRegionAvoiding(Vector2i pos, int targetSize, Set<Vector2i> forbidden) {
-        Set<Vector2i> region = new HashSet<>();
-        ArrayDeque<Vector2i> frontier = new ArrayDeque<>();
-
-        region.add(pos);
-        frontier.add(pos);
-
-        while (!frontier.isEmpty() && region.size() < targetSize) {
-            Vector2i current = frontier.poll();
-
-            for (Vector2i n : fisherYatesShuffle(current)) {
-                if (region.size() >= targetSize) break;
-                if (region.contains(n)) continue;
-                if (forbidden.contains(n)) continue;
-                if (isNotValidBiomeCell(n)) continue;
-
-                region.add(n);
-                frontier.add(n);
-            }
-        }
-
-        return region;
+    /**
+     * The layout this generator uses or will use, or null if it has not been generated yet.
+     */
+    BiomeLayout getLayout() {
+        WorldState current = state;
+        return current != null ? current.layout() : presetLayout;
     }
 
-    void generateInitialBiomes(NoiseConfig noiseConfig) {
-        random = noiseConfig.getOrCreateRandomDeriver(Identifier.of(TerraCraft.MOD_ID, "biome_supercell")).split("biome_supercell");
-        TerraCraft.LOGGER.info("random number = {}", random.nextInt());
+    private WorldState createState(NoiseConfig noiseConfig) {
+        BiomeLayout layout = presetLayout != null ? presetLayout : generateInitialBiomes(noiseConfig);
 
-        Vector2i snowPos = randomCellPos(random);
-        Vector2i desertPos = new Vector2i(-snowPos.x, -snowPos.y);
-        Vector2i junglePos = findSpotNearPos(desertPos, 2);
+        NoiseRegistry noises = NoiseRegistry.create(noiseConfig);
+        BiomeBlender blender = new BiomeBlender(layout, BIOME_BLEND_PARAMS, noises);
+        ColumnHeightCache heights = new ColumnHeightCache(HEIGHT_CACHE_CAPACITY, (chunkX, chunkZ) -> blendHeights(layout, blender, chunkX, chunkZ));
 
-        Set<Vector2i> forbidden = new HashSet<>();
+        return new WorldState(noiseConfig, noises, layout, blender, heights, new CaveCarver(noises.caves()));
+    }
 
-        snowCells = growRegionAvoiding(snowPos, 13, forbidden);
-        desertCells = growRegionAvoiding(desertPos, 10, forbidden);
+    /**
+     * The surface and terrain heights of one chunk, exactly as generation sees them.
+     */
+    static ColumnHeightCache.ChunkHeights blendHeights(BiomeLayout layout, BiomeBlender blender, int chunkX, int chunkZ) {
+        // uniform chunks get the same flat floor the filler writes for them
+        if (ChunkKind.classify(layout, chunkX, chunkZ).isUniform()) return DEEP_OCEAN_HEIGHTS;
 
-        forbidden.addAll(snowCells);
-        forbidden.addAll(desertCells);
+        short[] surface = new short[256];
+        short[] terrain = new short[256];
+        blender.blendChunk(chunkX, chunkZ, surface, terrain);
 
-        jungleCells = growRegionAvoiding(junglePos, 14, forbidden);
+        return new ColumnHeightCache.ChunkHeights(surface, terrain);
     }
 
-    private void initialize(NoiseConfig noiseConfig) {
-        if (initFinished) return;
-        initFinished = true;
+    private static ColumnHeightCache.ChunkHeights uniformHeights(int topY, int depth) {
+        short[] surface = new short[256];
+        short[] terrain = new short[256];
+        Arrays.fill(surface, (short) topY);
+        Arrays.fill(terrain, (short) depth);
 
-        generateInitialBiomes(noiseConfig);
+        return new ColumnHeightCache.ChunkHeights(surface, terrain);
     }
 
-    private TerracraftBiome getBiomeAt(BlockPos blockPos) {
-        int x = blockPos.getX();
-        int z = blockPos.getZ();
-
-        int cellOffset = 64;
-        int halfCell = cellOffset / 2;
-
-        Vector2i cellPos = new Vector2i(Math.floorDiv(x + halfCell, cellOffset), Math.floorDiv(z + halfCell, cellOffset));
-        int cellDistance = Math.max(Math.abs(cellPos.x), Math.abs(cellPos.y));
-
-        if (cellDistance <= plainsRad) {
-            return TerracraftBiome.PLAINS;
-        }
+    @Override
+    protected MapCodec<? extends ChunkGenerator> getCodec() {
+        return CODEC;
+    }
 
-        if (cellDistance > beachCellDistance) {
-            return (cellDistance > beachCellDistance + 1) ? TerracraftBiome.OCEAN : TerracraftBiome.BEACH;
-        }
+    @Override
+    public CompletableFuture<Chunk> populateNoise(Blender blender, NoiseConfig noiseConfig, StructureAccessor structureAccessor, Chunk chunk) {
+        WorldState worldState = initialize(noiseConfig);
 
-        if (snowCells.contains(cellPos)) {
-            return TerracraftBiome.SNOW;
-        }
+        ChunkPos cp = chunk.getPos();
+        if (ChunkKind.classify(worldState.layout(), cp.x, cp.z).isUniform()) {
+            long start = WorldgenTimings.start();
+            TerrainFiller.fillUniform(chunk);
+            ColumnHeightmaps.write(chunk, DEEP_OCEAN_HEIGHTS, worldState.layout());
 
-        if (desertCells.contains(cellPos)) {
-            return TerracraftBiome.DESERT;
+            WorldgenTimings.record(WorldgenTimings.Stage.POPULATE_NOISE, start);
+            return CompletableFuture.completedFuture(chunk);
         }
 
-        if (jungleCells.contains(cellPos)) {
-            return TerracraftBiome.JUNGLE;
+        if (ParallelSections.isEnabled()) {
+            // timed like the serial path, from when a worker picks the chunk up until its last section is done
+            long[] start = new long[1];
+
+            return CompletableFuture.supplyAsync(() -> {
+                start[0] = WorldgenTimings.start();
+                return worldState.heights().get(cp);
+            }, Util.getMainWorkerExecutor().named("terracraft_fill_noise")).thenCompose(heights -> TerrainFiller.fillParallel(chunk, heights).thenRun(() -> ColumnHeightmaps.write(chunk, heights, worldState.layout()))).thenApply(done -> {
+                WorldgenTimings.record(WorldgenTimings.Stage.POPULATE_NOISE, start[0]);
+                return chunk;
+            });
         }
 
-        return TerracraftBiome.PLAINS;
-    }
-
-    private int getSurfaceHeight(int x, int z, boolean surface) {
-//        Map<TerracraftBiome, Double> weights = getBlendingWeights(x, z);
-        double height = 0;
-
-//        for (var entry : weights.entrySet()) {
-//            if (surface) {
-//                height += surfaceHeightMaps.get(entry.getKey()).sample(x, z) * entry.getValue();
-//            } else {
-//                height += terrainHeightMaps.get(entry.getKey()).sample(x, z) * entry.getValue();
-//            }
-//        }
+        return CompletableFuture.supplyAsync(() -> {
+            long start = WorldgenTimings.start();
 
-        return (int) height;
-    }
+            // also warms the height cache for the surface stage
+            ColumnHeightCache.ChunkHeights heights = worldState.heights().get(cp);
+            TerrainFiller.fill(chunk, heights);
+            ColumnHeightmaps.write(chunk, heights, worldState.layout());
 
-    @Override
-    protected MapCodec<? extends ChunkGenerator> getCodec() {
-        return CODEC;
-    }
-
-    @Override
-    public CompletableFuture<Chunk> populateNoise(Blender blender, NoiseConfig noiseConfig, StructureAccessor structureAccessor, Chunk chunk) {
-        initialize(noiseConfig);
-        return CompletableFuture.completedFuture(chunk);
+            WorldgenTimings.record(WorldgenTimings.Stage.POPULATE_NOISE, start);
+            return chunk;
+        }, Util.getMainWorkerExecutor().named("terracraft_fill_noise"));
     }
 
     @Override
     public CompletableFuture<Chunk> populateBiomes(NoiseConfig noiseConfig, Blender blender, StructureAccessor structureAccessor, Chunk chunk) {
-        initialize(noiseConfig);
+        long start = WorldgenTimings.start();
+        BiomeLayout layout = initialize(noiseConfig).layout();
 
         ChunkPos cp = chunk.getPos();
+        if (ChunkKind.classify(layout, cp.x, cp.z).isUniform()) {
+            populateUniformBiomes(chunk);
+
+            WorldgenTimings.record(WorldgenTimings.Stage.POPULATE_BIOMES, start);
+            return CompletableFuture.completedFuture(chunk);
+        }
+
         var sampler = noiseConfig.getMultiNoiseSampler();
 
         int startQuartX = cp.x << 2;
@@ -305,88 +259,108 @@ public class SmallWorldChunkGenerator extends ChunkGenerator {
 
             section.populateBiomes((qx, qy, qz, s) -> {
                 int wx = qx * 4 + 2;
-                int wy = qy * 4 + 2;
                 int wz = qz * 4 + 2;
 
-                return biomes.get(getBiomeAt(new BlockPos(wx, wy, wz)));
+                return biomes.get(layout.getBiomeAt(wx, wz));
 
             }, sampler, startQuartX, startQuartY, startQuartZ);
         }
 
+        WorldgenTimings.record(WorldgenTimings.Stage.POPULATE_BIOMES, start);
         return CompletableFuture.completedFuture(chunk);
     }
 
+    private void populateUniformBiomes(Chunk chunk) {
+        ChunkSection[] sections = chunk.getSectionArray();
+
+        PalettedContainer<RegistryEntry<Biome>> template = deepOceanBiomes;
+        if (template == null) {
+            // the first deep ocean chunk builds the template, racing threads build identical ones so either can win
+            RegistryEntry<Biome> ocean = biomes.get(TerracraftBiome.OCEAN);
+            template = sections[0].getBiomeContainer().slice();
+
+            for (int qy = 0; qy < 4; qy++) {
+                for (int qz = 0; qz < 4; qz++) {
+                    for (int qx = 0; qx < 4; qx++) {
+                        template.set(qx, qy, qz, ocean);
+                    }
+                }
+            }
+
+            deepOceanBiomes = template;
+        }
+
+        for (int index = 0; index < sections.length; index++) {
+            sections[index] = new ChunkSection(sections[index].getBlockStateContainer(), template.copy());
+        }
+    }
+
     @Override
-    public void carve(ChunkRegion chunkRegion, long seed, NoiseConfig noiseConfig, BiomeAccess biomeAccess, StructureAccessor structureAccessor, Chunk chunk) {}
+    public void carve(ChunkRegion chunkRegion, long seed, NoiseConfig noiseConfig, BiomeAccess biomeAccess, StructureAccessor structureAccessor, Chunk chunk) {
+        long start = WorldgenTimings.start();
+        WorldState worldState = initialize(noiseConfig);
+
+        ChunkPos cp = chunk.getPos();
+        if (!ChunkKind.classify(worldState.layout(), cp.x, cp.z).isUniform()) {
+            worldState.caves().carve(chunk, worldState.heights().get(cp));
+        }
+
+        WorldgenTimings.record(WorldgenTimings.Stage.CARVE, start);
+    }
 
     @Override
     public void buildSurface(ChunkRegion region, StructureAccessor structureAccessor, NoiseConfig noiseConfig, Chunk chunk) {
-        initialize(noiseConfig);
+        long start = WorldgenTimings.start();
+        WorldState worldState = initialize(noiseConfig);
+        BiomeLayout layout = worldState.layout();
 
-        BlockPos.Mutable mpos = new BlockPos.Mutable();
         ChunkPos cpos = chunk.getPos();
+        if (ChunkKind.classify(layout, cpos.x, cpos.z).isUniform()) {
+            // the filler already wrote the surface layers from the template
+            WorldgenTimings.record(WorldgenTimings.Stage.BUILD_SURFACE, start);
+            return;
+        }
+
+        ColumnHeightCache.ChunkHeights heights = worldState.heights().get(cpos);
 
         int startX = cpos.getStartX();
         int startZ = cpos.getStartZ();
 
-        for (int lx = 0; lx < 16; lx++) {
-            for (int lz = 0; lz < 16; lz++) {
-                int wx = startX + lx;
-                int wz = startZ + lz;
-
-                int topY = getSurfaceHeight(wx, wz, true);
-                int topDepth = getSurfaceHeight(wx, wz, false);
+        for (int lz = 0; lz < 16; lz++) {
+            for (int lx = 0; lx < 16; lx++) {
+                int topY = heights.surfaceAt(lx, lz);
+                int bottomY = Math.max(SmallWorldParams.BEDROCK_Y + 1, topY - heights.terrainAt(lx, lz));
 
-                TerracraftBiome biome = getBiomeAt(new BlockPos(wx, topY, wz));
+                ColumnTemplate template = ColumnTemplate.of(layout.getBiomeAt(startX + lx, startZ + lz));
 
-                mpos.set(wx, 64, wz);
-                chunk.setBlockState(mpos, biome.surfaceBlock().getDefaultState(), 0);
-
-                mpos.set(wx, 63, wz);
-                chunk.setBlockState(mpos, Blocks.BLACK_STAINED_GLASS.getDefaultState(), 0);
-
-                mpos.set(wx, SmallWorldParams.BEDROCK_Y, wz);
-                chunk.setBlockState(mpos, Blocks.BEDROCK.getDefaultState(), 0);
-
-                if (Math.floorMod(wx + 32, 64) == 0 && Math.floorMod(wz + 32, 64) == 0) {
-                    mpos.set(wx, 65, wz);
-                    chunk.setBlockState(mpos, Blocks.RED_WOOL.getDefaultState(), 0);
+                // the noise stage already wrote stone up to the surface, only the top layers change here
+                for (int y = bottomY; y <= topY; y++) {
+                    ChunkSection section = chunk.getSection(chunk.getSectionIndex(y));
+                    section.setBlockState(lx, y & 15, lz, y == topY ? template.surface() : template.terrain(), false);
                 }
             }
         }
+
+        WorldgenTimings.record(WorldgenTimings.Stage.BUILD_SURFACE, start);
     }
 
     @Override
     public void generateFeatures(StructureWorldAccess world, Chunk chunk, StructureAccessor structureAccessor) {
-        if (1 == 1) {
-            return;
-        }
-
-        ChunkPos cp = chunk.getPos();
-
-        Registry<PlacedFeature> placed = world.getRegistryManager().getOrThrow(RegistryKeys.PLACED_FEATURE);
-        PlacedFeature oakChecked = placed.get(TreePlacedFeatures.OAK_CHECKED);
-        PlacedFeature jungleChecked = placed.get(TreePlacedFeatures.JUNGLE_TREE);
-        if (oakChecked == null || jungleChecked == null) return;
-
-        long s = world.getSeed() ^ (cp.x * 341873128712L) ^ (cp.z * 132897987541L) ^ 0x6A09E667F3BCC909L;
-        Random rand = Random.create(s);
-
-        int attempts = 1 + rand.nextInt(2);
-        for (int i = 0; i < attempts; i++) {
-            int x = cp.getStartX() + rand.nextInt(16);
-            int z = cp.getStartZ() + rand.nextInt(16);
+        long start = WorldgenTimings.start();
+        decorate(world, chunk);
+        WorldgenTimings.record(WorldgenTimings.Stage.GENERATE_FEATURES, start);
+    }
 
-            int y = world.getTopY(Heightmap.Type.WORLD_SURFACE_WG, x, z);
-            BlockPos origin = new BlockPos(x, y, z);
+    private void decorate(StructureWorldAccess world, Chunk chunk) {
+        // every earlier stage has already published the state by the time features run
+        WorldState current = state;
+        if (current == null) return;
 
-            if (getBiomeAt(origin) == TerracraftBiome.JUNGLE) {
-                jungleChecked.generate(world, this, rand, origin);
-                continue;
-            }
+        ChunkPos cp = chunk.getPos();
+        if (ChunkKind.classify(current.layout(), cp.x, cp.z).isUniform()) return;
 
-            oakChecked.generate(world, this, rand, origin);
-        }
+        TerracraftBiome biome = current.layout().getBiomeAt(cp.getStartX(), cp.getStartZ());
+        decorator.decorate(world, this, chunk, biome, current.heights().get(cp));
     }
 
     @Override
@@ -409,45 +383,39 @@ public class SmallWorldChunkGenerator extends ChunkGenerator {
 
     @Override
     public int getHeight(int x, int z, Heightmap.Type heightmap, HeightLimitView world, NoiseConfig noiseConfig) {
-        initialize(noiseConfig);
-        return getSurfaceHeight(x, z, true) + 1;
+        long start = WorldgenTimings.start();
+        WorldState worldState = initialize(noiseConfig);
+        ColumnTemplate template = ColumnTemplate.of(worldState.layout().getBiomeAt(x, z));
+        int height = ColumnHeightmaps.top(heightmap, worldState.heights().getSurfaceHeight(x, z), template);
+
+        WorldgenTimings.record(WorldgenTimings.Stage.GET_HEIGHT, start);
+        return height;
     }
 
     @Override
     public VerticalBlockSample getColumnSample(int x, int z, HeightLimitView world, NoiseConfig noiseConfig) {
-        initialize(noiseConfig);
-
-        BlockState[] states = new BlockState[SmallWorldParams.WORLD_HEIGHT];
-
-        BlockState bedrock = Blocks.BEDROCK.getDefaultState();
-        BlockState stone = Blocks.STONE.getDefaultState();
-        BlockState dirt = Blocks.DIRT.getDefaultState();
-        BlockState grass = Blocks.GRASS_BLOCK.getDefaultState();
-        BlockState air = Blocks.AIR.getDefaultState();
+        long start = WorldgenTimings.start();
+        WorldState worldState = initialize(noiseConfig);
 
-        int topY = getSurfaceHeight(x, z, true);
-        int stoneTop = Math.max(SmallWorldParams.BEDROCK_Y + 1, topY - 4);
+        ColumnHeightCache.ChunkHeights heights = worldState.heights().get(x >> 4, z >> 4);
+        ColumnTemplate template = ColumnTemplate.of(worldState.layout().getBiomeAt(x, z));
+        // the column is shared, vanilla only ever reads column samples so they can wrap it without a copy
+        VerticalBlockSample sample = new VerticalBlockSample(SmallWorldParams.BEDROCK_Y, template.column(heights.surfaceAt(x, z), heights.terrainAt(x, z)));
 
-        for (int i = 0; i < SmallWorldParams.WORLD_HEIGHT; i++) {
-            int y = SmallWorldParams.BEDROCK_Y + i;
-
-            BlockState s;
-            if (y == SmallWorldParams.BEDROCK_Y) s = bedrock;
-            else if (y <= stoneTop) s = stone;
-            else if (y < topY) s = dirt;
-            else if (y == topY) s = grass;
-            else if (y <= SmallWorldParams.SEA_LEVEL) s = Blocks.WATER.getDefaultState();
-            else s = air;
-
-            states[i] = s;
-        }
-
-        return new VerticalBlockSample(SmallWorldParams.BEDROCK_Y, states);
+        WorldgenTimings.record(WorldgenTimings.Stage.GET_COLUMN_SAMPLE, start);
+        return sample;
     }
 
     @Override
     public void appendDebugHudText(List<String> text, NoiseConfig noiseConfig, BlockPos pos) {
         text.add("small_world radius=" + SmallWorldParams.RADIUS);
-        text.add("weight at:" + pos.getX() + " / " + pos.getZ() + " = " + tempMap.sample((double) pos.getX() / SmallWorldParams.RADIUS, (double) pos.getZ() / SmallWorldParams.RADIUS));
+
+        WorldState current = state;
+        if (current != null) {
+            ColumnHeightCache heights = current.heights();
+            text.add("height cache hits=" + heights.getHits() + " misses=" + heights.getMisses() + " evictions=" + heights.getEvictions() + " capacity=" + heights.getCapacity());
+            text.add(WorldgenTimings.compactSummary());
+            text.add("climate at:" + pos.getX() + " / " + pos.getZ() + " = " + current.blender().sampleTemperature(pos.getX(), pos.getZ()) + " / " + current.blender().sampleHumidity(pos.getX(), pos.getZ()));
+        }
     }
 }
@@ -0,0 +1,122 @@
+package net.mango.worldgen.small_world;
+
+import net.mango.worldgen.TerracraftFeatures;
+import net.mango.worldgen.biomes.TerracraftBiome;
+import net.minecraft.registry.RegistryEntryLookup;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.entry.RegistryEntry;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.gen.chunk.ChunkGenerator;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import net.minecraft.world.gen.feature.TreePlacedFeatures;
+import net.minecraft.world.gen.feature.VegetationPlacedFeatures;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trees and ground cover for the small world, placed from the generator's cached heights.
+ * <p>
+ * Every chunk lies inside a single layout cell, so a chunk has exactly one biome and one palette. Placed features
+ * are looked up when the generator is decoded and checked against the frozen registry on first use, and tree
+ * positions come straight from the chunk's surface heights rather than from heightmap queries against the world.
+ * Cave chests ride along with the ground cover, since this generator replaces the biome feature steps they are
+ * normally added to.
+ */
+final class SmallWorldDecorator {
+    private static final TerracraftBiome[] BIOMES = TerracraftBiome.values();
+
+    private record Palette(RegistryEntry<PlacedFeature> tree, int minTrees, int maxTrees, List<RegistryEntry<PlacedFeature>> patches) {
+        static final Palette EMPTY = new Palette(null, 0, 0, List.of());
+
+        // drops the entries nothing was ever bound to, a datapack may have removed them
+        Palette bound() {
+            if (this == EMPTY) return EMPTY;
+
+            RegistryEntry<PlacedFeature> boundTree = tree != null && tree.hasKeyAndValue() ? tree : null;
+            List<RegistryEntry<PlacedFeature>> boundPatches = patches.stream().filter(RegistryEntry::hasKeyAndValue).toList();
+
+            return new Palette(boundTree, minTrees, maxTrees, boundPatches);
+        }
+    }
+
+    private final Palette[] declared = new Palette[BIOMES.length];
+    // bound on the first decorate, the entries looked up while decoding are only filled in once the registry is frozen
+    private volatile Palette[] palettes;
+
+    private SmallWorldDecorator(RegistryEntryLookup<PlacedFeature> features) {
+        // snow is surfaced with snow blocks, which the sapling filter of the checked trees rejects, so it uses the
+        // grove spruce that expects snow underneath
+        for (TerracraftBiome biome : BIOMES) {
+            declared[biome.ordinal()] = switch (biome) {
+                case PLAINS -> palette(features, TreePlacedFeatures.OAK_CHECKED, 1, 2, VegetationPlacedFeatures.PATCH_GRASS_PLAIN, TerracraftFeatures.CAVE_CHEST_PLACED);
+                case SNOW -> palette(features, TreePlacedFeatures.SPRUCE_ON_SNOW, 0, 1, TerracraftFeatures.CAVE_CHEST_PLACED);
+                case JUNGLE -> palette(features, TreePlacedFeatures.JUNGLE_TREE, 2, 4, VegetationPlacedFeatures.PATCH_GRASS_JUNGLE, TerracraftFeatures.CAVE_CHEST_PLACED);
+                case DESERT -> palette(features, null, 0, 0, VegetationPlacedFeatures.PATCH_DEAD_BUSH_2, VegetationPlacedFeatures.PATCH_CACTUS_DESERT, TerracraftFeatures.CAVE_CHEST_PLACED);
+                case BEACH, OCEAN -> Palette.EMPTY;
+            };
+        }
+    }
+
+    static SmallWorldDecorator resolve(RegistryEntryLookup<PlacedFeature> features) {
+        return new SmallWorldDecorator(features);
+    }
+
+    @SafeVarargs
+    private static Palette palette(RegistryEntryLookup<PlacedFeature> features, RegistryKey<PlacedFeature> tree, int minTrees, int maxTrees, RegistryKey<PlacedFeature>... patches) {
+        // entries may still be unbound here, see Palette.bound
+        RegistryEntry<PlacedFeature> treeEntry = tree == null ? null : features.getOptional(tree).orElse(null);
+
+        List<RegistryEntry<PlacedFeature>> patchEntries = new ArrayList<>(patches.length);
+        for (RegistryKey<PlacedFeature> patch : patches) {
+            features.getOptional(patch).ifPresent(patchEntries::add);
+        }
+
+        return new Palette(treeEntry, minTrees, maxTrees, List.copyOf(patchEntries));
+    }
+
+    void decorate(StructureWorldAccess world, ChunkGenerator generator, Chunk chunk, TerracraftBiome biome, ColumnHeightCache.ChunkHeights heights) {
+        Palette[] resolved = palettes;
+        if (resolved == null) {
+            // binding twice from racing workers gives the same palettes, so no lock is needed
+            resolved = new Palette[declared.length];
+            for (int i = 0; i < declared.length; i++) {
+                resolved[i] = declared[i].bound();
+            }
+            palettes = resolved;
+        }
+
+        Palette palette = resolved[biome.ordinal()];
+        if (palette == Palette.EMPTY) return;
+
+        ChunkPos cp = chunk.getPos();
+        long seed = world.getSeed() ^ (cp.x * 341873128712L) ^ (cp.z * 132897987541L) ^ 0x6A09E667F3BCC909L;
+        Random random = Random.create(seed);
+
+        if (palette.tree() != null) {
+            int trees = palette.minTrees() + random.nextInt(palette.maxTrees() - palette.minTrees() + 1);
+            PlacedFeature tree = palette.tree().value();
+
+            for (int i = 0; i < trees; i++) {
+                int lx = random.nextInt(16);
+                int lz = random.nextInt(16);
+
+                // submerged columns keep the draws above so tree positions stay stable, they just grow nothing
+                int top = heights.surfaceAt(lx, lz);
+                if (top < SmallWorldParams.SEA_LEVEL) continue;
+
+                tree.generate(world, generator, random, new BlockPos(cp.getStartX() + lx, top + 1, cp.getStartZ() + lz));
+            }
+        }
+
+        // patches bring their own count and spread placement, they start from the chunk origin like vanilla features
+        BlockPos origin = new BlockPos(cp.getStartX(), chunk.getBottomY(), cp.getStartZ());
+        for (RegistryEntry<PlacedFeature> patch : palette.patches()) {
+            patch.value().generate(world, generator, random, origin);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package net.mango.worldgen.small_world;
+
+import net.mango.worldgen.biomes.TerracraftBiome;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+/**
+ * Renders the biome and height maps of a seed to PNGs without starting a server, one pixel per block column.
+ * <p>
+ * Heights come from the same layout, noises and blender the generator uses, so the maps match the world exactly.
+ * Run it with {@code ./gradlew renderMap -Pseed=<seed> [-Pout=<dir>]}.
+ */
+public final class SmallWorldMapRenderer {
+    private static final int CHUNK_RAD = Math.ceilDiv(SmallWorldParams.RADIUS, 16);
+    private static final int SIZE = CHUNK_RAD * 2 * 16;
+
+    private static final int MIN_SHADE_Y = SmallWorldParams.SEA_LEVEL - 16;
+    private static final int MAX_SHADE_Y = SmallWorldParams.SEA_LEVEL + 48;
+
+    private SmallWorldMapRenderer() {}
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+
+        if (args.length < 1) {
+            System.err.println("usage: SmallWorldMapRenderer <seed> [output dir]");
+            System.exit(1);
+        }
+
+        long seed = parseSeed(args[0]);
+        Path out = Path.of(args.length > 1 ? args[1] : "build/maps");
+
+        // the generator's statics touch blocks and registries
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+
+        long start = System.nanoTime();
+
+        var derivers = NoiseRegistry.derivers(seed);
+        BiomeLayout layout = LayoutGenerator.generate(derivers);
+        BiomeBlender blender = new BiomeBlender(layout, SmallWorldChunkGenerator.BIOME_BLEND_PARAMS, NoiseRegistry.create(derivers));
+
+        BufferedImage biomes = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+        BufferedImage height = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+
+        int chunks = CHUNK_RAD * 2;
+        IntStream.range(0, chunks * chunks).parallel().forEach(i -> renderChunk(i % chunks - CHUNK_RAD, i / chunks - CHUNK_RAD, layout, blender, biomes, height));
+
+        Files.createDirectories(out);
+        ImageIO.write(biomes, "png", out.resolve("biomes.png").toFile());
+        ImageIO.write(height, "png", out.resolve("height.png").toFile());
+
+        System.out.printf("rendered seed %d (%dx%d) to %s in %d ms%n", seed, SIZE, SIZE, out.toAbsolutePath(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // same rule as the create world screen, numbers are taken as is and anything else is hashed
+    private static long parseSeed(String seed) {
+        try {
+            return Long.parseLong(seed);
+        } catch (NumberFormatException e) {
+            return seed.hashCode();
+        }
+    }
+
+    private static void renderChunk(int chunkX, int chunkZ, BiomeLayout layout, BiomeBlender blender, BufferedImage biomes, BufferedImage height) {
+        ColumnHeightCache.ChunkHeights heights = SmallWorldChunkGenerator.blendHeights(layout, blender, chunkX, chunkZ);
+
+        int startX = chunkX * 16;
+        int startZ = chunkZ * 16;
+        int[] biomeRgb = new int[256];
+        int[] heightRgb = new int[256];
+
+        for (int lz = 0; lz < 16; lz++) {
+            for (int lx = 0; lx < 16; lx++) {
+                int i = ColumnHeightCache.ChunkHeights.index(lx, lz);
+                int y = heights.surfaceAt(lx, lz);
+                double shade = shade(y);
+
+                biomeRgb[i] = scale(biomeColor(layout.getBiomeAt(startX + lx, startZ + lz)), 0.6 + 0.4 * shade);
+                heightRgb[i] = y < SmallWorldParams.SEA_LEVEL ? waterColor(SmallWorldParams.SEA_LEVEL - y) : gray(shade);
+            }
+        }
+
+        // each chunk owns its own pixels, so the parallel writes never overlap
+        int px = startX + CHUNK_RAD * 16;
+        int pz = startZ + CHUNK_RAD * 16;
+        biomes.setRGB(px, pz, 16, 16, biomeRgb, 0, 16);
+        height.setRGB(px, pz, 16, 16, heightRgb, 0, 16);
+    }
+
+    private static double shade(int y) {
+        return Math.clamp((double) (y - MIN_SHADE_Y) / (MAX_SHADE_Y - MIN_SHADE_Y), 0.0, 1.0);
+    }
+
+    private static int biomeColor(TerracraftBiome biome) {
+        return switch (biome) {
+            case PLAINS -> 0x5BA33B;
+            case SNOW -> 0xE8F0F4;
+            case DESERT -> 0xE0CC8A;
+            case JUNGLE -> 0x2E7A1A;
+            case BEACH -> 0xF0E2A8;
+            case OCEAN -> 0x2F5FBF;
+        };
+    }
+
+    private static int waterColor(int depth) {
+        double t = Math.min(depth, 32) / 32.0;
+        return rgb(0.25 - 0.2 * t, 0.45 - 0.3 * t, 0.9 - 0.35 * t);
+    }
+
+    private static int gray(double value) {
+        return rgb(value, value, value);
+    }
+
+    private static int scale(int color, double factor) {
+        return rgb((color >> 16 & 0xFF) / 255.0 * factor, (color >> 8 & 0xFF) / 255.0 * factor, (color & 0xFF) / 255.0 * factor);
+    }
+
+    private static int rgb(double r, double g, double b) {
+        return (int) (r * 255) << 16 | (int) (g * 255) << 8 | (int) (b * 255);
+    }
+}
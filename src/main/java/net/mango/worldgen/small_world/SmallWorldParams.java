@@ -9,4 +9,13 @@ public class SmallWorldParams {
 
     public static final int WORLD_HEIGHT = 384;
     public static final int BEDROCK_Y = -64;
+
+    public static final int CELL_SHIFT = 6;
+    public static final int CELL_SIZE = 1 << CELL_SHIFT;
+    public static final int BEACH_CELL_DISTANCE = 5;
+    public static final int PLAINS_CELL_RAD = 2;
+
+    // flat floor used for chunks that are ocean all the way through their blend footprint
+    public static final int DEEP_OCEAN_FLOOR = 48;
+    public static final int DEEP_OCEAN_DEPTH = 1;
 }
@@ -0,0 +1,179 @@
+package net.mango.worldgen.small_world;
+
+import net.mango.worldgen.biomes.TerracraftBiome;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes the base stone, water and bedrock of a chunk section by section.
+ * <p>
+ * Sections that are entirely stone or entirely water are swapped for a copy of a single-value template, sections
+ * entirely above the terrain and the sea are left as the untouched air they start as, and only the few sections
+ * the surface or the bedrock floor passes through are written block by block, straight into the section.
+ * Uniform deep ocean chunks skip all of that and copy a complete prebuilt section for every index.
+ */
+public final class TerrainFiller {
+    private static final BlockState STONE = Blocks.STONE.getDefaultState();
+    private static final BlockState WATER = Blocks.WATER.getDefaultState();
+    private static final BlockState BEDROCK = Blocks.BEDROCK.getDefaultState();
+
+    private static final PalettedContainer<BlockState> STONE_TEMPLATE = uniform(STONE);
+    private static final PalettedContainer<BlockState> WATER_TEMPLATE = uniform(WATER);
+
+    private TerrainFiller() {}
+
+    // built on first use, the column never changes so every deep ocean chunk shares the same sections
+    private static final class DeepOcean {
+        static final PalettedContainer<BlockState>[] SECTIONS = buildColumn(ColumnTemplate.of(TerracraftBiome.OCEAN),
+                SmallWorldParams.DEEP_OCEAN_FLOOR, SmallWorldParams.DEEP_OCEAN_DEPTH);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PalettedContainer<BlockState>[] buildColumn(ColumnTemplate template, int topY, int depth) {
+        BlockState[] column = template.column(topY, depth);
+        PalettedContainer<BlockState>[] sections = new PalettedContainer[SmallWorldParams.WORLD_HEIGHT >> 4];
+
+        for (int index = 0; index < sections.length; index++) {
+            int base = index << 4;
+
+            boolean single = true;
+            for (int ly = 1; ly < 16 && single; ly++) {
+                single = column[base + ly] == column[base];
+            }
+
+            // all-air sections stay null, chunks already start out with them
+            if (single) {
+                sections[index] = column[base].isAir() ? null : uniform(column[base]);
+                continue;
+            }
+
+            PalettedContainer<BlockState> container = uniform(column[base]);
+            for (int ly = 1; ly < 16; ly++) {
+                BlockState state = column[base + ly];
+                if (state == column[base]) continue;
+
+                for (int lz = 0; lz < 16; lz++) {
+                    for (int lx = 0; lx < 16; lx++) {
+                        container.set(lx, ly, lz, state);
+                    }
+                }
+            }
+
+            sections[index] = container;
+        }
+
+        return sections;
+    }
+
+    private static PalettedContainer<BlockState> uniform(BlockState state) {
+        return new PalettedContainer<>(Block.STATE_IDS, state, PalettedContainer.PaletteProvider.BLOCK_STATE);
+    }
+
+    public static void fill(Chunk chunk, ColumnHeightCache.ChunkHeights heights) {
+        short[] surface = heights.surface();
+        int minTop = minTop(surface);
+        int maxTop = maxTop(surface);
+
+        for (int index = 0; index < chunk.countVerticalSections(); index++) {
+            fillSection(chunk, index, surface, minTop, maxTop);
+        }
+    }
+
+    /**
+     * Same as {@link #fill} with the sections spread over {@link ParallelSections}. Every section only ever
+     * replaces or writes its own slot, so they need no coordination beyond the future completing.
+     */
+    public static CompletableFuture<Void> fillParallel(Chunk chunk, ColumnHeightCache.ChunkHeights heights) {
+        short[] surface = heights.surface();
+        int minTop = minTop(surface);
+        int maxTop = maxTop(surface);
+
+        return ParallelSections.submit(chunk.countVerticalSections(), index -> fillSection(chunk, index, surface, minTop, maxTop));
+    }
+
+    private static int minTop(short[] surface) {
+        int min = Integer.MAX_VALUE;
+        for (short top : surface) {
+            min = Math.min(min, top);
+        }
+
+        return min;
+    }
+
+    private static int maxTop(short[] surface) {
+        int max = Integer.MIN_VALUE;
+        for (short top : surface) {
+            max = Math.max(max, top);
+        }
+
+        return max;
+    }
+
+    /**
+     * Fills a chunk classified as {@link ChunkKind#isUniform() uniform}, surface layers included, so the surface
+     * stage has nothing left to do for it.
+     */
+    public static void fillUniform(Chunk chunk) {
+        PalettedContainer<BlockState>[] templates = DeepOcean.SECTIONS;
+        ChunkSection[] sections = chunk.getSectionArray();
+
+        for (int index = 0; index < sections.length; index++) {
+            int bottomY = chunk.sectionIndexToCoord(index) << 4;
+            int templateIndex = (bottomY - SmallWorldParams.BEDROCK_Y) >> 4;
+            if (templateIndex < 0 || templateIndex >= templates.length || templates[templateIndex] == null) continue;
+
+            sections[index] = new ChunkSection(templates[templateIndex].copy(), sections[index].getBiomeContainer());
+        }
+    }
+
+    static void fillSection(Chunk chunk, int index, short[] surface, int minTop, int maxTop) {
+        int bottomY = chunk.sectionIndexToCoord(index) << 4;
+        int topY = bottomY + 15;
+
+        // above both the terrain and the sea, sections start out as air so there is nothing to write
+        if (bottomY > maxTop && bottomY > SmallWorldParams.SEA_LEVEL) return;
+
+        ChunkSection[] sections = chunk.getSectionArray();
+        ChunkSection section = sections[index];
+
+        boolean aboveFloor = bottomY > SmallWorldParams.BEDROCK_Y;
+        if (aboveFloor && topY <= minTop) {
+            sections[index] = new ChunkSection(STONE_TEMPLATE.copy(), section.getBiomeContainer());
+            return;
+        }
+
+        if (aboveFloor && bottomY > maxTop && topY <= SmallWorldParams.SEA_LEVEL) {
+            sections[index] = new ChunkSection(WATER_TEMPLATE.copy(), section.getBiomeContainer());
+            return;
+        }
+
+        section.lock();
+        try {
+            for (int lz = 0; lz < 16; lz++) {
+                for (int lx = 0; lx < 16; lx++) {
+                    int top = surface[lz << 4 | lx];
+
+                    for (int ly = 0; ly < 16; ly++) {
+                        int y = bottomY + ly;
+
+                        BlockState state;
+                        if (y == SmallWorldParams.BEDROCK_Y) state = BEDROCK;
+                        else if (y <= top) state = STONE;
+                        else if (y <= SmallWorldParams.SEA_LEVEL) state = WATER;
+                        else break;
+
+                        section.setBlockState(lx, ly, lz, state, false);
+                    }
+                }
+            }
+        } finally {
+            section.unlock();
+        }
+    }
+}
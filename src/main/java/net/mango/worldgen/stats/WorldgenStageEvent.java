@@ -0,0 +1,22 @@
+package net.mango.worldgen.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("terracraft.WorldgenStage")
+@Label("Worldgen Stage")
+@Category({"TerraCraft", "Worldgen"})
+@Description("One call into a small world generator stage")
+@StackTrace(false)
+class WorldgenStageEvent extends jdk.jfr.Event {
+    @Label("Stage")
+    String stage;
+
+    @Label("Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+}
@@ -0,0 +1,112 @@
+package net.mango.worldgen.stats;
+
+import jdk.jfr.EventType;
+
+import java.util.Locale;
+
+/**
+ * Process-wide timings of the small world generator stages.
+ * <p>
+ * Each stage feeds a {@link LatencyHistogram} and, while a JFR recording has it enabled, a
+ * {@link WorldgenStageEvent}. When timings are disabled {@link #start()} skips the clock read and
+ * {@link #record(Stage, long)} returns straight away, so call sites can stay instrumented in production.
+ */
+public final class WorldgenTimings {
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[STAGES.length];
+    private static final EventType STAGE_EVENT = EventType.getEventType(WorldgenStageEvent.class);
+
+    private static volatile boolean enabled = true;
+
+    static {
+        for (int i = 0; i < STAGES.length; i++) {
+            HISTOGRAMS[i] = new LatencyHistogram();
+        }
+    }
+
+    private WorldgenTimings() {}
+
+    public enum Stage {
+        POPULATE_NOISE("noise"),
+        POPULATE_BIOMES("biomes"),
+        BUILD_SURFACE("surface"),
+        CARVE("carve"),
+        GENERATE_FEATURES("features"),
+        GET_HEIGHT("height"),
+        GET_COLUMN_SAMPLE("column");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        WorldgenTimings.enabled = enabled;
+    }
+
+    public static long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    public static void record(Stage stage, long start) {
+        if (start == DISABLED) return;
+
+        long nanos = System.nanoTime() - start;
+        HISTOGRAMS[stage.ordinal()].record(nanos);
+
+        if (STAGE_EVENT.isEnabled()) {
+            WorldgenStageEvent event = new WorldgenStageEvent();
+            event.stage = stage.label();
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    public static LatencyHistogram get(Stage stage) {
+        return HISTOGRAMS[stage.ordinal()];
+    }
+
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * One line per stage, for example {@code noise n=4096 p50=1.20ms p99=3.85ms}.
+     */
+    public static String summary(Stage stage) {
+        LatencyHistogram histogram = get(stage);
+
+        return String.format(Locale.ROOT, "%s n=%d p50=%.2fms p99=%.2fms",
+                stage.label(), histogram.count(), histogram.percentile(0.5) / 1.0e6, histogram.percentile(0.99) / 1.0e6);
+    }
+
+    /**
+     * p50/p99 of every stage that has been recorded at least once, in milliseconds, for the debug HUD.
+     */
+    public static String compactSummary() {
+        StringBuilder builder = new StringBuilder("wg p50/p99 ms:");
+
+        for (Stage stage : STAGES) {
+            LatencyHistogram histogram = get(stage);
+            if (histogram.count() == 0) continue;
+
+            builder.append(String.format(Locale.ROOT, " %s %.2f/%.2f", stage.label(), histogram.percentile(0.5) / 1.0e6, histogram.percentile(0.99) / 1.0e6));
+        }
+
+        return builder.toString();
+    }
+}
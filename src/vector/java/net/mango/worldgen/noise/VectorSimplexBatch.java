@@ -0,0 +1,122 @@
+package net.mango.worldgen.noise;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link SimplexBatch} over {@code jdk.incubator.vector}, only ever loaded reflectively by {@link SimplexBatch#load()}.
+ * <p>
+ * The skew, corner offsets and falloff run across the preferred number of double lanes, in the same operation
+ * order as {@link SimplexKernel2D#sample} so every lane is bit identical to the scalar result. Only the
+ * permutation lookups stay scalar, the gradients are then gathered back into vectors.
+ */
+final class VectorSimplexBatch implements SimplexBatch {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private static final double U = SimplexKernel2D.UNSKEW_FACTOR_2D;
+    private static final double U2 = 2.0 * SimplexKernel2D.UNSKEW_FACTOR_2D;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private static final class Scratch {
+        final double[] iota = new double[LANES];
+        final double[] cellX = new double[LANES];
+        final double[] cellY = new double[LANES];
+        final double[] lower = new double[LANES];
+        final int[] t = new int[LANES];
+        final int[] u = new int[LANES];
+        final int[] v = new int[LANES];
+
+        Scratch() {
+            for (int i = 0; i < LANES; i++) {
+                iota[i] = i;
+            }
+        }
+    }
+
+    @Override
+    public int lanes() {
+        return LANES;
+    }
+
+    @Override
+    public int sampleRow(SimplexKernel2D kernel, double[] out, int offset, double x0, double step, double y, int count, double amp, boolean accumulate) {
+        Scratch s = scratch.get();
+        DoubleVector iota = DoubleVector.fromArray(SPECIES, s.iota, 0);
+
+        int done = 0;
+        for (; done + LANES <= count; done += LANES) {
+            DoubleVector xs = iota.add(done).mul(step).add(x0);
+            DoubleVector result = sample(kernel, s, xs, y);
+
+            if (accumulate) {
+                DoubleVector.fromArray(SPECIES, out, offset + done).add(result.mul(amp)).intoArray(out, offset + done);
+            } else {
+                result.intoArray(out, offset + done);
+            }
+        }
+
+        return done;
+    }
+
+    private static DoubleVector sample(SimplexKernel2D kernel, Scratch s, DoubleVector x, double y) {
+        DoubleVector d = x.add(y).mul(SimplexKernel2D.SKEW_FACTOR_2D);
+        DoubleVector i = floor(x.add(d));
+        DoubleVector j = floor(d.add(y));
+        DoubleVector e = i.add(j).mul(U);
+
+        DoubleVector h = x.sub(i.sub(e));
+        DoubleVector k = DoubleVector.broadcast(SPECIES, y).sub(j.sub(e));
+
+        VectorMask<Double> lower = h.compare(VectorOperators.GT, k);
+        DoubleVector l = DoubleVector.zero(SPECIES).blend(1.0, lower);
+        DoubleVector m = DoubleVector.broadcast(SPECIES, 1.0).blend(0.0, lower);
+
+        DoubleVector n = h.sub(l).add(U);
+        DoubleVector o = k.sub(m).add(U);
+        DoubleVector p = h.sub(1.0).add(U2);
+        DoubleVector q = k.sub(1.0).add(U2);
+
+        i.intoArray(s.cellX, 0);
+        j.intoArray(s.cellY, 0);
+        l.intoArray(s.lower, 0);
+
+        int[] perm = kernel.perm;
+        int[] permMod12 = kernel.permMod12;
+        for (int lane = 0; lane < LANES; lane++) {
+            int r = (int) s.cellX[lane] & 0xFF;
+            int c = (int) s.cellY[lane] & 0xFF;
+            int li = (int) s.lower[lane];
+
+            s.t[lane] = permMod12[r + perm[c]];
+            s.u[lane] = permMod12[r + li + perm[c + 1 - li]];
+            s.v[lane] = permMod12[r + 1 + perm[c + 1]];
+        }
+
+        DoubleVector sum = corner(s.t, h, k).add(corner(s.u, n, o)).add(corner(s.v, p, q));
+        return sum.mul(70.0);
+    }
+
+    private static DoubleVector floor(DoubleVector value) {
+        // truncate like the int cast in MathHelper.floor, then step down where that rounded up
+        DoubleVector truncated = (DoubleVector) value.convert(VectorOperators.D2L, 0).convert(VectorOperators.L2D, 0);
+        return truncated.sub(1.0, value.compare(VectorOperators.LT, truncated));
+    }
+
+    private static DoubleVector corner(int[] gradients, DoubleVector x, DoubleVector y) {
+        DoubleVector d = DoubleVector.broadcast(SPECIES, 0.5).sub(x.mul(x)).sub(y.mul(y)).sub(0.0 * 0.0);
+        VectorMask<Double> outside = d.compare(VectorOperators.LT, 0.0);
+
+        DoubleVector gx = DoubleVector.fromArray(SPECIES, SimplexKernel2D.GRAD_X, 0, gradients, 0);
+        DoubleVector gy = DoubleVector.fromArray(SPECIES, SimplexKernel2D.GRAD_Y, 0, gradients, 0);
+        DoubleVector gz = DoubleVector.fromArray(SPECIES, SimplexKernel2D.GRAD_Z, 0, gradients, 0);
+
+        DoubleVector d2 = d.mul(d);
+        DoubleVector dot = gx.mul(x).add(gy.mul(y)).add(gz.mul(0.0));
+
+        return d2.mul(d2).mul(dot).blend(0.0, outside);
+    }
+}